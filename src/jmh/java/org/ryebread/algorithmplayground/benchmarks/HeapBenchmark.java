@@ -0,0 +1,72 @@
+package org.ryebread.algorithmplayground.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ryebread.algorithmplayground.structures.heap.IntHeap;
+
+/**
+ * Primitive heaps of each arity: building one from an array, pushing everything then popping it all
+ * back off, and the replaceTop churn of a bounded heap.  The larger sizes are well past L2, which is
+ * where the wider heaps should pull ahead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class HeapBenchmark {
+
+	@Param({ "1000", "100000", "10000000" })
+	private int size;
+
+	@Param({ "2", "4", "8" })
+	private int arity;
+
+	private int input[];
+
+	@Setup
+	public void setUp() {
+		input = new Random(42).ints(size).toArray();
+	}
+
+	@Benchmark
+	public IntHeap heapify() {
+		return IntHeap.min(arity, input);
+	}
+
+	@Benchmark
+	public long pushThenPopAll() {
+		IntHeap heap = IntHeap.min(arity);
+		for (int element : input) {
+			heap.push(element);
+		}
+		long sum = 0;
+		while (!heap.isEmpty()) {
+			sum += heap.pop();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public IntHeap replaceTop() {
+		IntHeap heap = IntHeap.min(arity, input);
+		for (int element : input) {
+			heap.replaceTop(element);
+		}
+		return heap;
+	}
+
+}
@@ -0,0 +1,87 @@
+package org.ryebread.algorithmplayground.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The kinds of input every benchmark is run against.  Generation is seeded, so every run of a
+ * benchmark sees the same data.
+ */
+public enum InputShape {
+	RANDOM, SORTED, REVERSED, DUPLICATES, COMMON_PREFIX, NEARLY_SORTED;
+
+	private static final long SEED = 0x5EED;
+
+	/*
+	 * Width of the strings handed to the fixed length string sorts
+	 */
+	public static final int STRING_LENGTH = 12;
+
+	private static final String PREFIX = "tenant-0042/region-us-east/";
+
+	public int[] ints(int size) {
+		Random random = new Random(SEED);
+		int elements[];
+		switch (this) {
+		case DUPLICATES:
+			elements = random.ints(size, 0, 16).toArray();
+			break;
+		case COMMON_PREFIX:
+			// The numeric analogue of a shared prefix: every element agrees on its upper bytes
+			elements = random.ints(size, 0x12340000, 0x12340100).toArray();
+			break;
+		default:
+			elements = random.ints(size).toArray();
+			break;
+		}
+		return arrange(elements);
+	}
+
+	public String[] strings(int size, boolean fixedLength) {
+		Random random = new Random(SEED);
+		String strings[] = new String[size];
+		for (int i = 0; i < size; i++) {
+			StringBuilder sb = new StringBuilder(PREFIX.length() + STRING_LENGTH);
+			int length = fixedLength ? STRING_LENGTH : 1 + random.nextInt(STRING_LENGTH);
+			if (this == COMMON_PREFIX) {
+				sb.append(PREFIX, 0, fixedLength ? STRING_LENGTH - 2 : PREFIX.length());
+				length = 2;
+			}
+			int alphabet = this == DUPLICATES ? 2 : 26;
+			for (int j = 0; j < length; j++) {
+				sb.append((char) ('a' + random.nextInt(alphabet)));
+			}
+			strings[i] = sb.toString();
+		}
+		if (this == SORTED || this == REVERSED) {
+			Arrays.sort(strings);
+			if (this == REVERSED) {
+				for (int i = 0, j = size - 1; i < j; i++, j--) {
+					String swap = strings[i];
+					strings[i] = strings[j];
+					strings[j] = swap;
+				}
+			}
+		}
+		return strings;
+	}
+
+	private int[] arrange(int[] elements) {
+		if (this == NEARLY_SORTED) {
+			// Append-mostly data: sorted, apart from the last 1% arriving out of order
+			Arrays.sort(elements, 0, elements.length - elements.length / 100);
+		}
+		if (this == SORTED || this == REVERSED) {
+			Arrays.sort(elements);
+			if (this == REVERSED) {
+				for (int i = 0, j = elements.length - 1; i < j; i++, j--) {
+					int swap = elements[i];
+					elements[i] = elements[j];
+					elements[j] = swap;
+				}
+			}
+		}
+		return elements;
+	}
+
+}
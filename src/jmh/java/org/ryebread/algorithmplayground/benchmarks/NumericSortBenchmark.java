@@ -0,0 +1,61 @@
+package org.ryebread.algorithmplayground.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ryebread.algorithmplayground.services.sort.SortAlgorithm;
+import org.ryebread.algorithmplayground.services.sort.SortService;
+import org.ryebread.algorithmplayground.services.sort.SortServiceImpl;
+
+/**
+ * The untraced primitive sorts, through {@link SortService#sort(int[], SortAlgorithm)}.
+ *
+ * Every invocation copies the input into a working array first, so small sizes include the cost of
+ * that copy -- it's the same for every algorithm, though.  Insertion sort is quadratic, so it lives in
+ * {@link QuadraticSortBenchmark} with smaller sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class NumericSortBenchmark {
+
+	@Param({ "MERGE", "HEAP", "PARALLEL_MERGE", "RADIX", "NATURAL_MERGE", "INTRO" })
+	private SortAlgorithm algorithm;
+
+	@Param({ "10", "1000", "100000", "10000000" })
+	private int size;
+
+	@Param({ "RANDOM", "SORTED", "REVERSED", "DUPLICATES", "COMMON_PREFIX", "NEARLY_SORTED" })
+	private InputShape shape;
+
+	private final SortService sortService = new SortServiceImpl();
+	private int input[];
+	private int working[];
+
+	@Setup
+	public void setUp() {
+		input = shape.ints(size);
+		working = new int[size];
+	}
+
+	@Benchmark
+	public int[] sort() {
+		System.arraycopy(input, 0, working, 0, size);
+		sortService.sort(working, algorithm);
+		return working;
+	}
+
+}
@@ -0,0 +1,145 @@
+package org.ryebread.algorithmplayground.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ryebread.algorithmplayground.structures.heap.IndexedMinHeap;
+import org.ryebread.algorithmplayground.structures.heap.IndexedPriorityQueue;
+import org.ryebread.algorithmplayground.structures.heap.PairingHeap;
+import org.ryebread.algorithmplayground.structures.heap.RadixHeap;
+
+/**
+ * The indexed priority queues head to head on the two workloads they're meant for: Dijkstra's
+ * algorithm over a road-network-like grid, where every vertex joins its four neighbours by roads of
+ * random length, and a k-way merge of sorted runs.  Both are monotone, so the radix heap can run them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class PriorityQueueBenchmark {
+
+	public enum Queue {
+		INDEXED_MIN_HEAP(IndexedMinHeap::new), PAIRING_HEAP(PairingHeap::new), RADIX_HEAP(RadixHeap::new);
+
+		private final IntFunction<IndexedPriorityQueue> factory;
+
+		Queue(IntFunction<IndexedPriorityQueue> factory) {
+			this.factory = factory;
+		}
+	}
+
+	private static final int RUNS = 256;
+	private static final int MAX_ROAD_LENGTH = 1000;
+
+	@Param({ "10000", "1000000" })
+	private int size;
+
+	@Param
+	private Queue queue;
+
+	/*
+	 * The grid in compressed sparse row form: the roads out of vertex v are roads[v] to roads[v + 1]
+	 * of `targets` and `lengths`
+	 */
+	private int roads[];
+	private int targets[];
+	private int lengths[];
+
+	private long runs[][];
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		int side = (int) Math.sqrt(size);
+		int vertices = side * side;
+		roads = new int[vertices + 1];
+		targets = new int[4 * vertices];
+		lengths = new int[4 * vertices];
+		int road = 0;
+		for (int v = 0; v < vertices; v++) {
+			roads[v] = road;
+			int row = v / side;
+			int column = v % side;
+			int neighbours[] = { row > 0 ? v - side : -1, row < side - 1 ? v + side : -1,
+					column > 0 ? v - 1 : -1, column < side - 1 ? v + 1 : -1 };
+			for (int neighbour : neighbours) {
+				if (neighbour >= 0) {
+					targets[road] = neighbour;
+					lengths[road++] = 1 + random.nextInt(MAX_ROAD_LENGTH);
+				}
+			}
+		}
+		roads[vertices] = road;
+
+		runs = new long[RUNS][];
+		for (int r = 0; r < RUNS; r++) {
+			runs[r] = random.longs(size / RUNS, 0, Long.MAX_VALUE >>> 8).toArray();
+			Arrays.sort(runs[r]);
+		}
+	}
+
+	@Benchmark
+	public long[] dijkstra() {
+		int vertices = roads.length - 1;
+		long distances[] = new long[vertices];
+		Arrays.fill(distances, Long.MAX_VALUE);
+		IndexedPriorityQueue heap = queue.factory.apply(vertices);
+		distances[0] = 0;
+		heap.insert(0, 0);
+		while (!heap.isEmpty()) {
+			int v = heap.pop();
+			long distance = distances[v];
+			for (int road = roads[v]; road < roads[v + 1]; road++) {
+				int target = targets[road];
+				long through = distance + lengths[road];
+				if (through < distances[target]) {
+					if (distances[target] == Long.MAX_VALUE) {
+						heap.insert(target, through);
+					} else {
+						heap.decreaseKey(target, through);
+					}
+					distances[target] = through;
+				}
+			}
+		}
+		return distances;
+	}
+
+	@Benchmark
+	public long kWayMerge() {
+		IndexedPriorityQueue heap = queue.factory.apply(RUNS);
+		int next[] = new int[RUNS];
+		for (int r = 0; r < RUNS; r++) {
+			if (runs[r].length > 0) {
+				heap.insert(r, runs[r][0]);
+				next[r] = 1;
+			}
+		}
+		long checksum = 0;
+		while (!heap.isEmpty()) {
+			int r = heap.pop();
+			checksum = checksum * 31 + r;
+			if (next[r] < runs[r].length) {
+				heap.insert(r, runs[r][next[r]++]);
+			}
+		}
+		return checksum;
+	}
+
+}
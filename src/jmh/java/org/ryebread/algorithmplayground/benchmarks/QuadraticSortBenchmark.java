@@ -0,0 +1,54 @@
+package org.ryebread.algorithmplayground.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ryebread.algorithmplayground.services.sort.SortAlgorithm;
+import org.ryebread.algorithmplayground.services.sort.SortService;
+import org.ryebread.algorithmplayground.services.sort.SortServiceImpl;
+
+/**
+ * Insertion sort, untraced, at sizes a quadratic sort can actually finish
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuadraticSortBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	private int size;
+
+	@Param({ "RANDOM", "SORTED", "REVERSED", "DUPLICATES", "COMMON_PREFIX" })
+	private InputShape shape;
+
+	private final SortService sortService = new SortServiceImpl();
+	private int input[];
+	private int working[];
+
+	@Setup
+	public void setUp() {
+		input = shape.ints(size);
+		working = new int[size];
+	}
+
+	@Benchmark
+	public int[] insertionSort() {
+		System.arraycopy(input, 0, working, 0, size);
+		sortService.sort(working, SortAlgorithm.INSERTION);
+		return working;
+	}
+
+}
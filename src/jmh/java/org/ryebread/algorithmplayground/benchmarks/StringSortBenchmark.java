@@ -0,0 +1,105 @@
+package org.ryebread.algorithmplayground.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ryebread.algorithmplayground.services.sort.SortService;
+import org.ryebread.algorithmplayground.services.sort.SortServiceImpl;
+
+/**
+ * The string radix sorts.  LSD sorts need equal length keys, so they get their own fixed length copy
+ * of the input; the others are run against strings of varying length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xss64m", "-Xms4g", "-Xmx4g" })
+public class StringSortBenchmark {
+
+	@Param({ "10", "1000", "100000", "10000000" })
+	private int size;
+
+	@Param({ "RANDOM", "SORTED", "REVERSED", "DUPLICATES", "COMMON_PREFIX" })
+	private InputShape shape;
+
+	private final SortService sortService = new SortServiceImpl();
+	private String input[];
+	private String fixedLengthInput[];
+	private String working[];
+
+	@Setup
+	public void setUp() {
+		input = shape.strings(size, false);
+		fixedLengthInput = shape.strings(size, true);
+		working = new String[size];
+	}
+
+	@Benchmark
+	public String[] lsdRadixSort() {
+		System.arraycopy(fixedLengthInput, 0, working, 0, size);
+		sortService.lsdRadixSort(working, InputShape.STRING_LENGTH);
+		return working;
+	}
+
+	@Benchmark
+	public String[] lsdRadixSortParallelPacked() {
+		System.arraycopy(fixedLengthInput, 0, working, 0, size);
+		sortService.lsdRadixSort(working, InputShape.STRING_LENGTH, true, true);
+		return working;
+	}
+
+	@Benchmark
+	public String[] lsdRadixSortUtf16() {
+		System.arraycopy(fixedLengthInput, 0, working, 0, size);
+		sortService.utf16LsdRadixSort(working, InputShape.STRING_LENGTH);
+		return working;
+	}
+
+	@Benchmark
+	public String[] msdRadixSort() {
+		System.arraycopy(input, 0, working, 0, size);
+		sortService.msdRadixSort(working);
+		return working;
+	}
+
+	@Benchmark
+	public String[] msdRadixSortHybrid() {
+		System.arraycopy(input, 0, working, 0, size);
+		sortService.msdRadixSort(working, 15);
+		return working;
+	}
+
+	@Benchmark
+	public String[] msdRadixSortUtf16() {
+		System.arraycopy(input, 0, working, 0, size);
+		sortService.utf16MsdRadixSort(working);
+		return working;
+	}
+
+	@Benchmark
+	public String[] threeWayRadixQuickSort() {
+		System.arraycopy(input, 0, working, 0, size);
+		sortService.threeWayRadixQuickSort(working);
+		return working;
+	}
+
+	@Benchmark
+	public String[] threeWayRadixQuickSortParallel() {
+		System.arraycopy(input, 0, working, 0, size);
+		sortService.threeWayRadixQuickSort(working, true);
+		return working;
+	}
+
+}
@@ -0,0 +1,76 @@
+package org.ryebread.algorithmplayground.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ryebread.algorithmplayground.models.sort.HeapSortTrace;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortStats;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortTrace;
+import org.ryebread.algorithmplayground.models.sort.MergeSortView;
+import org.ryebread.algorithmplayground.services.sort.SortService;
+import org.ryebread.algorithmplayground.services.sort.SortServiceImpl;
+
+/**
+ * The step-recording sorts behind the visualization endpoints.  The per-step snapshot versions are
+ * quadratic in memory, so the sizes stop well short of the other benchmarks -- the GC profiler's
+ * allocation rate is the number to watch here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	private int size;
+
+	@Param({ "RANDOM", "SORTED", "REVERSED", "DUPLICATES", "COMMON_PREFIX" })
+	private InputShape shape;
+
+	private final SortService sortService = new SortServiceImpl();
+	private int input[];
+
+	@Setup
+	public void setUp() {
+		input = shape.ints(size);
+	}
+
+	@Benchmark
+	public List<InsertionSortStats> insertionSort() {
+		return sortService.insertionSort(input);
+	}
+
+	@Benchmark
+	public InsertionSortTrace insertionSortTrace() {
+		return sortService.insertionSortTrace(input, 0);
+	}
+
+	@Benchmark
+	public MergeSortView mergeSort() {
+		return sortService.mergeSort(input.clone());
+	}
+
+	@Benchmark
+	public int[][] heapSort() {
+		return sortService.heapSort(input);
+	}
+
+	@Benchmark
+	public HeapSortTrace heapSortTrace() {
+		return sortService.heapSortTrace(input, 0);
+	}
+
+}
@@ -0,0 +1,223 @@
+package org.ryebread.algorithmplayground.controllers.sort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Reads and writes primitive arrays as raw little-endian 32 or 64 bit integers, the binary
+ * alternative to sending them as JSON.
+ *
+ * Bytes go through one fixed size buffer at a time, viewed as an IntBuffer or LongBuffer so that
+ * each chunk is converted with a single bulk get or put.  Nothing is boxed, and nothing the size of
+ * the whole body is ever held besides the array itself.
+ */
+final class LittleEndianArrays {
+
+	private static final int CHUNK = 64 * 1024;
+
+	/*
+	 * The most an array is sized to up front, whatever the body claims its length is.  A body that
+	 * really is longer grows the array as its bytes arrive, so a client can't make the server allocate
+	 * gigabytes just by sending a large Content-Length
+	 */
+	private static final int MAX_INITIAL_BYTES = 16 * CHUNK;
+
+	/*
+	 * The largest array most VMs will allocate
+	 */
+	private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+	private LittleEndianArrays() {
+	}
+
+	/**
+	 * @param contentLength - the body's length in bytes if known, otherwise -1.  Either way the array
+	 *                      grows as the body is read, past the first {@link #MAX_INITIAL_BYTES}
+	 */
+	static int[] readInts(InputStream in, long contentLength) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+		int elements[] = new int[initialLength(contentLength, Integer.BYTES)];
+		int count = 0;
+		int read = 0;
+		while (read >= 0) {
+			read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+			if (read > 0) {
+				buffer.position(buffer.position() + read);
+			}
+			buffer.flip();
+			int available = buffer.remaining() / Integer.BYTES;
+			if (count + available > elements.length) {
+				elements = Arrays.copyOf(elements, grow(elements.length, count + available));
+			}
+			buffer.asIntBuffer().get(elements, count, available);
+			count += available;
+			buffer.position(available * Integer.BYTES);
+			buffer.compact();
+		}
+		checkComplete(buffer, Integer.BYTES);
+		return count == elements.length ? elements : Arrays.copyOf(elements, count);
+	}
+
+	static long[] readLongs(InputStream in, long contentLength) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+		long elements[] = new long[initialLength(contentLength, Long.BYTES)];
+		int count = 0;
+		int read = 0;
+		while (read >= 0) {
+			read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+			if (read > 0) {
+				buffer.position(buffer.position() + read);
+			}
+			buffer.flip();
+			int available = buffer.remaining() / Long.BYTES;
+			if (count + available > elements.length) {
+				elements = Arrays.copyOf(elements, grow(elements.length, count + available));
+			}
+			buffer.asLongBuffer().get(elements, count, available);
+			count += available;
+			buffer.position(available * Long.BYTES);
+			buffer.compact();
+		}
+		checkComplete(buffer, Long.BYTES);
+		return count == elements.length ? elements : Arrays.copyOf(elements, count);
+	}
+
+	/**
+	 * The body as a stream of ints, read a chunk at a time as the stream is consumed, for when there's
+	 * no need to hold every element at once.  A failed read is thrown as an UncheckedIOException
+	 */
+	static IntStream intStream(InputStream in) {
+		return StreamSupport.intStream(new IntChunkSpliterator(in), false);
+	}
+
+	static void writeInts(int[] elements, OutputStream out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+		IntBuffer view = buffer.asIntBuffer();
+		for (int i = 0; i < elements.length; i += view.capacity()) {
+			int length = Math.min(view.capacity(), elements.length - i);
+			view.clear();
+			view.put(elements, i, length);
+			out.write(buffer.array(), 0, length * Integer.BYTES);
+		}
+	}
+
+	static void writeLongs(long[] elements, OutputStream out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+		LongBuffer view = buffer.asLongBuffer();
+		for (int i = 0; i < elements.length; i += view.capacity()) {
+			int length = Math.min(view.capacity(), elements.length - i);
+			view.clear();
+			view.put(elements, i, length);
+			out.write(buffer.array(), 0, length * Long.BYTES);
+		}
+	}
+
+	private static int initialLength(long contentLength, int width) {
+		if (contentLength < 0) {
+			return CHUNK / width;
+		}
+		if (contentLength / width > MAX_LENGTH) {
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+					"At most " + MAX_LENGTH + " elements can be sorted at once");
+		}
+		return (int) (Math.min(contentLength, MAX_INITIAL_BYTES) / width);
+	}
+
+	private static int grow(int length, int minLength) {
+		if (minLength > MAX_LENGTH) {
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+					"At most " + MAX_LENGTH + " elements can be sorted at once");
+		}
+		return (int) Math.max(minLength, Math.min(MAX_LENGTH, (long) length << 1));
+	}
+
+	/**
+	 * Anything left in the buffer once the body is used up is the start of an element that never
+	 * arrived
+	 */
+	private static void checkComplete(ByteBuffer buffer, int width) {
+		if (buffer.position() != 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Body length is not a multiple of " + width + " bytes");
+		}
+	}
+
+	private static class IntChunkSpliterator extends Spliterators.AbstractIntSpliterator {
+
+		private final InputStream in;
+		private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+		private final int chunk[] = new int[CHUNK / Integer.BYTES];
+		private int chunkPosition;
+		private int chunkLength;
+		private boolean ended;
+
+		IntChunkSpliterator(InputStream in) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.in = in;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			if (chunkPosition == chunkLength && !fill()) {
+				return false;
+			}
+			action.accept(chunk[chunkPosition++]);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			while (chunkPosition < chunkLength || fill()) {
+				for (; chunkPosition < chunkLength; chunkPosition++) {
+					action.accept(chunk[chunkPosition]);
+				}
+			}
+		}
+
+		/**
+		 * Read until at least one whole int is buffered, or the body ends
+		 * @return false once there's nothing left
+		 */
+		private boolean fill() {
+			try {
+				while (!ended && buffer.position() < Integer.BYTES) {
+					int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+					if (read < 0) {
+						ended = true;
+					} else {
+						buffer.position(buffer.position() + read);
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			buffer.flip();
+			chunkLength = buffer.remaining() / Integer.BYTES;
+			chunkPosition = 0;
+			buffer.asIntBuffer().get(chunk, 0, chunkLength);
+			buffer.position(chunkLength * Integer.BYTES);
+			buffer.compact();
+			if (chunkLength == 0) {
+				checkComplete(buffer, Integer.BYTES);
+				return false;
+			}
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.ryebread.algorithmplayground.controllers.sort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Writes each frame it's handed to the response as its own line of JSON (newline delimited JSON).
+ * 
+ * The first frame is flushed straight away so the client can start drawing, after that the
+ * servlet's output buffer decides when to send.  Nothing is held on to between frames.
+ */
+class NdjsonFrameWriter<F> implements Consumer<F> {
+
+	private final ObjectWriter writer;
+	private final OutputStream out;
+	private boolean flushed;
+
+	NdjsonFrameWriter(ObjectMapper objectMapper, OutputStream out) {
+		this.writer = objectMapper.writer()
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+		this.out = out;
+	}
+
+	/**
+	 * The sort services hand frames over through a plain Consumer, so a failed write is
+	 * rethrown unchecked and unwrapped again by the controller
+	 */
+	@Override
+	public void accept(F frame) {
+		try {
+			writer.writeValue(out, frame);
+			out.write('\n');
+			if (!flushed) {
+				out.flush();
+				flushed = true;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -1,37 +1,263 @@
 package org.ryebread.algorithmplayground.controllers.sort;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.ryebread.algorithmplayground.models.sort.HeapSortTrace;
 import org.ryebread.algorithmplayground.models.sort.InsertionSortStats;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortTrace;
 import org.ryebread.algorithmplayground.models.sort.MergeSortView;
+import org.ryebread.algorithmplayground.models.sort.SortCacheStats;
+import org.ryebread.algorithmplayground.models.sort.SortMetrics;
+import org.ryebread.algorithmplayground.services.sort.SortAlgorithm;
+import org.ryebread.algorithmplayground.services.sort.SortInstrumentation;
+import org.ryebread.algorithmplayground.services.sort.SortResultCache;
 import org.ryebread.algorithmplayground.services.sort.SortService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Controller
 @RequestMapping("/api/sort")
 public class SortController {
 
+	/**
+	 * Response header carrying a sort's {@link SortMetrics}, for requests made with `metrics=true`
+	 */
+	public static final String METRICS_HEADER = "X-Sort-Metrics";
+
 	@Autowired
 	private SortService sortService;
 
+	@Autowired
+	private SortInstrumentation sortInstrumentation;
+
+	@Autowired
+	private SortResultCache sortResultCache;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	@PostMapping("/insertion")
-	public @ResponseBody List<InsertionSortStats> insertionSort(@RequestBody Integer elements[]) {
-		return sortService.insertionSort(elements);
+	public @ResponseBody List<InsertionSortStats> insertionSort(@RequestBody int elements[]) {
+		return sortResultCache.get("insertion", elements, () -> sortService.insertionSort(elements),
+				SortResultCache::sizeOf);
+	}
+
+	@PostMapping(value = "/insertion/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> insertionSortStream(@RequestBody int elements[]) {
+		return ndjson(out -> sortService.insertionSort(elements, new NdjsonFrameWriter<>(objectMapper, out)));
+	}
+
+	@PostMapping("/insertion/trace")
+	public @ResponseBody InsertionSortTrace insertionSortTrace(@RequestBody int elements[],
+			@RequestParam(defaultValue = "0") int keyframeInterval) {
+		return sortResultCache.get("insertion/trace?keyframeInterval=" + keyframeInterval, elements,
+				() -> sortService.insertionSortTrace(elements, keyframeInterval), SortResultCache::sizeOf);
 	}
 
 	@PostMapping("/merge")
-	public @ResponseBody MergeSortView mergeSort(@RequestBody Integer elements[]) {
-		return sortService.mergeSort(elements);
+	public @ResponseBody MergeSortView mergeSort(@RequestBody int elements[],
+			@RequestParam(defaultValue = "false") boolean parallel) {
+		// Sequential and parallel produce the same view, so they share cache entries
+		return sortResultCache.get("merge", elements, () -> sortService.mergeSort(elements, parallel),
+				SortResultCache::sizeOf);
+	}
+
+	@PostMapping("/merge/natural")
+	public @ResponseBody MergeSortView naturalMergeSort(@RequestBody int elements[]) {
+		return sortResultCache.get("merge/natural", elements, () -> sortService.naturalMergeSort(elements),
+				SortResultCache::sizeOf);
 	}
 
 	@PostMapping("/heap")
-	public @ResponseBody Integer[][] heapSort(@RequestBody Integer elements[]) {
-		return sortService.heapSort(elements);
+	public @ResponseBody int[][] heapSort(@RequestBody int elements[]) {
+		return sortResultCache.get("heap", elements, () -> sortService.heapSort(elements), SortResultCache::sizeOf);
+	}
+
+	@PostMapping("/heap/trace")
+	public @ResponseBody HeapSortTrace heapSortTrace(@RequestBody int elements[],
+			@RequestParam(defaultValue = "0") int snapshotInterval) {
+		return sortResultCache.get("heap/trace?snapshotInterval=" + snapshotInterval, elements,
+				() -> sortService.heapSortTrace(elements, snapshotInterval), SortResultCache::sizeOf);
+	}
+
+	@PostMapping(value = "/heap/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> heapSortStream(@RequestBody int elements[]) {
+		return ndjson(out -> sortService.heapSort(elements, new NdjsonFrameWriter<>(objectMapper, out)));
+	}
+
+	@PostMapping("/radix")
+	public ResponseEntity<int[]> radixSort(@RequestBody int elements[],
+			@RequestParam(defaultValue = "false") boolean metrics) {
+		HttpHeaders headers = measure(SortAlgorithm.RADIX.name(), elements.length, metrics,
+				() -> sortService.lsdRadixSort(elements));
+		return ResponseEntity.ok().headers(headers).body(elements);
+	}
+
+	@PostMapping(value = "/radix", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+			produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> radixSortBinary(InputStream body,
+			@RequestHeader(value = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength,
+			@RequestParam(defaultValue = "32") int bits,
+			@RequestParam(defaultValue = "false") boolean metrics) throws IOException {
+		return binary(body, contentLength, bits, SortAlgorithm.RADIX.name(), metrics, sortService::lsdRadixSort,
+				sortService::lsdRadixSort);
+	}
+
+	/**
+	 * Sort without recording any steps, returning just the sorted array.  With `metrics=true`, what
+	 * the sort cost comes back in the {@link #METRICS_HEADER} header
+	 */
+	@PostMapping("/sorted")
+	public ResponseEntity<int[]> sort(@RequestBody int elements[],
+			@RequestParam(defaultValue = "MERGE") SortAlgorithm algorithm,
+			@RequestParam(defaultValue = "false") boolean metrics) {
+		HttpHeaders headers = measure(algorithm.name(), elements.length, metrics,
+				() -> sortService.sort(elements, algorithm));
+		return ResponseEntity.ok().headers(headers).body(elements);
+	}
+
+	/**
+	 * {@link #sort}, with the array sent and returned as raw little-endian integers instead of JSON.
+	 * `bits` picks between 32 and 64 bit elements
+	 */
+	@PostMapping(value = "/sorted", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+			produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> sortBinary(InputStream body,
+			@RequestHeader(value = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength,
+			@RequestParam(defaultValue = "32") int bits,
+			@RequestParam(defaultValue = "MERGE") SortAlgorithm algorithm,
+			@RequestParam(defaultValue = "false") boolean metrics) throws IOException {
+		return binary(body, contentLength, bits, algorithm.name(), metrics,
+				elements -> sortService.sort(elements, algorithm), elements -> sortService.sort(elements, algorithm));
+	}
+
+	/**
+	 * The k smallest elements, or the k largest, best first -- without sorting the whole input
+	 */
+	@PostMapping("/top")
+	public @ResponseBody int[] topK(@RequestBody int elements[], @RequestParam int k,
+			@RequestParam(defaultValue = "false") boolean largest) {
+		return sortService.topK(Arrays.stream(elements), k, largest);
+	}
+
+	/**
+	 * {@link #topK} over raw little-endian 32 bit integers.  The body is read as it's consumed, so it
+	 * can be far larger than would fit in memory
+	 */
+	@PostMapping(value = "/top", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+			produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> topKBinary(InputStream body, @RequestParam int k,
+			@RequestParam(defaultValue = "false") boolean largest) throws IOException {
+		int top[];
+		try {
+			top = sortService.topK(LittleEndianArrays.intStream(body), k, largest);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.contentLength((long) top.length * Integer.BYTES).body(out -> LittleEndianArrays.writeInts(top, out));
+	}
+
+	@GetMapping("/cache/stats")
+	public @ResponseBody SortCacheStats cacheStats() {
+		return sortResultCache.getStats();
+	}
+
+	/**
+	 * Frames are written as the sort produces them, so the response never holds more than one
+	 */
+	private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+		StreamingResponseBody unwrapped = out -> {
+			try {
+				body.writeTo(out);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(unwrapped);
+	}
+
+	/**
+	 * The body is read and sorted before returning, since the request is finished with by the time a
+	 * StreamingResponseBody runs.  Only writing the result back is left to it
+	 */
+	private ResponseEntity<StreamingResponseBody> binary(InputStream body, long contentLength, int bits,
+			String algorithm, boolean metrics, Consumer<int[]> intSort, Consumer<long[]> longSort)
+			throws IOException {
+		long length;
+		HttpHeaders headers;
+		StreamingResponseBody sorted;
+		if (bits == Integer.SIZE) {
+			int elements[] = LittleEndianArrays.readInts(body, contentLength);
+			headers = measure(algorithm, elements.length, metrics, () -> intSort.accept(elements));
+			length = (long) elements.length * Integer.BYTES;
+			sorted = out -> LittleEndianArrays.writeInts(elements, out);
+		} else if (bits == Long.SIZE) {
+			long elements[] = LittleEndianArrays.readLongs(body, contentLength);
+			headers = measure(algorithm, elements.length, metrics, () -> longSort.accept(elements));
+			length = (long) elements.length * Long.BYTES;
+			sorted = out -> LittleEndianArrays.writeLongs(elements, out);
+		} else {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bits must be 32 or 64, not " + bits);
+		}
+		return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.contentLength(length).body(sorted);
+	}
+
+	/**
+	 * Runs `sort`, measured if the caller asked for metrics or every sort is being counted anyway (so
+	 * the meters see every sort, not just the ones somebody asked about)
+	 *
+	 * @return headers carrying the metrics if they were asked for, otherwise none
+	 */
+	private HttpHeaders measure(String algorithm, int size, boolean metrics, Runnable sort) {
+		HttpHeaders headers = new HttpHeaders();
+		if (!metrics && !sortInstrumentation.isCounting()) {
+			sort.run();
+			return headers;
+		}
+		SortMetrics measured = sortInstrumentation.measure(algorithm, size, sort);
+		if (metrics) {
+			headers.set(METRICS_HEADER, metricsHeader(measured));
+		}
+		return headers;
+	}
+
+	/**
+	 * e.g. "algorithm=MERGE; size=1000; nanos=81234; comparisons=8709; moves=19952; auxBytes=4000".
+	 * The counts are left out when they weren't kept
+	 */
+	private static String metricsHeader(SortMetrics metrics) {
+		StringBuilder header = new StringBuilder()
+				.append("algorithm=").append(metrics.getAlgorithm())
+				.append("; size=").append(metrics.getSize())
+				.append("; nanos=").append(metrics.getNanos());
+		if (metrics.getComparisons() != null) {
+			header.append("; comparisons=").append(metrics.getComparisons())
+					.append("; moves=").append(metrics.getMoves())
+					.append("; auxBytes=").append(metrics.getAuxBytes());
+		}
+		return header.toString();
 	}
 
 }
@@ -0,0 +1,146 @@
+package org.ryebread.algorithmplayground.controllers.sort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.ryebread.algorithmplayground.models.sort.SortJobStatus;
+import org.ryebread.algorithmplayground.services.sort.SortAlgorithm;
+import org.ryebread.algorithmplayground.services.sort.SortJob;
+import org.ryebread.algorithmplayground.services.sort.SortJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Sorts too big to run on a request thread: submit the array, get back a job to poll, and fetch the
+ * sorted array once it's done.  See {@link SortJobService}
+ */
+@Controller
+@RequestMapping("/api/sort/jobs")
+public class SortJobController {
+
+	/*
+	 * How long a client turned away because the queue is full is told to wait before trying again
+	 */
+	private static final String RETRY_AFTER_SECONDS = "5";
+
+	@Autowired
+	private SortJobService sortJobService;
+
+	@PostMapping
+	public ResponseEntity<SortJobStatus> submit(@RequestBody int elements[],
+			@RequestParam(defaultValue = "MERGE") SortAlgorithm algorithm) {
+		return accepted(() -> sortJobService.submit(elements, algorithm));
+	}
+
+	/**
+	 * {@link #submit}, with the array sent as raw little-endian integers.  A full queue is checked for
+	 * before the body is read, so an overloaded server doesn't read a huge array only to turn it away
+	 */
+	@PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public ResponseEntity<SortJobStatus> submitBinary(InputStream body,
+			@RequestHeader(value = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength,
+			@RequestParam(defaultValue = "32") int bits,
+			@RequestParam(defaultValue = "MERGE") SortAlgorithm algorithm) throws IOException {
+		if (sortJobService.isSaturated()) {
+			return busy();
+		}
+		if (bits == Integer.SIZE) {
+			int elements[] = LittleEndianArrays.readInts(body, contentLength);
+			return accepted(() -> sortJobService.submit(elements, algorithm));
+		} else if (bits == Long.SIZE) {
+			long elements[] = LittleEndianArrays.readLongs(body, contentLength);
+			return accepted(() -> sortJobService.submit(elements, algorithm));
+		}
+		throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bits must be 32 or 64, not " + bits);
+	}
+
+	@GetMapping("/{id}")
+	public @ResponseBody SortJobStatus status(@PathVariable String id) {
+		return job(id).getStatus();
+	}
+
+	/**
+	 * The sorted array as JSON, once the job is done
+	 */
+	@GetMapping("/{id}/result")
+	public @ResponseBody Object result(@PathVariable String id) {
+		SortJob job = finishedJob(id);
+		return job.getInts() != null ? job.getInts() : job.getLongs();
+	}
+
+	@GetMapping(value = "/{id}/result", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> resultBinary(@PathVariable String id) {
+		SortJob job = finishedJob(id);
+		int ints[] = job.getInts();
+		long longs[] = job.getLongs();
+		long length = ints != null ? (long) ints.length * Integer.BYTES : (long) longs.length * Long.BYTES;
+		StreamingResponseBody sorted = ints != null ? out -> LittleEndianArrays.writeInts(ints, out)
+				: out -> LittleEndianArrays.writeLongs(longs, out);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM).contentLength(length)
+				.body(sorted);
+	}
+
+	/**
+	 * Cancel a job that hasn't finished, or discard the result of one that has
+	 */
+	@DeleteMapping("/{id}")
+	public ResponseEntity<Void> remove(@PathVariable String id) {
+		if (!sortJobService.remove(id)) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No sort job " + id);
+		}
+		return ResponseEntity.noContent().build();
+	}
+
+	private ResponseEntity<SortJobStatus> accepted(Supplier<SortJob> submit) {
+		SortJob job;
+		try {
+			job = submit.get();
+		} catch (RejectedExecutionException e) {
+			return busy();
+		}
+		return ResponseEntity.accepted()
+				.location(ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{id}").buildAndExpand(job.getId()).toUri())
+				.body(job.getStatus());
+	}
+
+	private static ResponseEntity<SortJobStatus> busy() {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+				.build();
+	}
+
+	private SortJob job(String id) {
+		SortJob job = sortJobService.get(id);
+		if (job == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No sort job " + id);
+		}
+		return job;
+	}
+
+	private SortJob finishedJob(String id) {
+		SortJob job = job(id);
+		if (job.getState() != SortJob.State.DONE) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Sort job " + id + " is " + job.getState());
+		}
+		return job;
+	}
+
+}
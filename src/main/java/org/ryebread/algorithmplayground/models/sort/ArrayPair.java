@@ -2,29 +2,29 @@ package org.ryebread.algorithmplayground.models.sort;
 
 public class ArrayPair {
 
-	private Integer[] left;
-	private Integer[] right;
+	private int[] left;
+	private int[] right;
 
 	public ArrayPair() {}
 	
-	public ArrayPair(Integer[] left, Integer[] right) {
+	public ArrayPair(int[] left, int[] right) {
 		this.left = left;
 		this.right = right;
 	}
 	
-	public Integer[] getLeft() {
+	public int[] getLeft() {
 		return left;
 	}
 
-	public void setLeft(Integer[] left) {
+	public void setLeft(int[] left) {
 		this.left = left;
 	}
 
-	public Integer[] getRight() {
+	public int[] getRight() {
 		return right;
 	}
 
-	public void setRight(Integer[] right) {
+	public void setRight(int[] right) {
 		this.right = right;
 	}
 
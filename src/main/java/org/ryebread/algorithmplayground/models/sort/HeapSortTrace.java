@@ -0,0 +1,112 @@
+package org.ryebread.algorithmplayground.models.sort;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact alternative to the heap snapshot taken before every pop.
+ *
+ * Starting from `initialTree` (the unsorted input), every change made to the heap is written to
+ * `events` as a pair of ints:
+ *
+ * (i, j)      -- a sift down swapped tree[i] with its child tree[j], both indices >= 0
+ * (-1, value) -- `value` was popped off the root, and the last leaf moved up to replace it
+ *
+ * Optionally, a full copy of the heap is also kept before every `snapshotInterval` pops.
+ * snapshots.get(m) is the heap just before pop m * snapshotInterval, and snapshotOffsets[m] is the
+ * position in `events` it was taken at.  {@link #tree(int)} rebuilds the heap before any pop from the
+ * nearest snapshot (or the initial tree) by replaying the events after it.
+ */
+public class HeapSortTrace {
+
+	public static final int POP = -1;
+
+	private int[] initialTree;
+	private int[] events;
+	private int snapshotInterval;
+	private List<int[]> snapshots;
+	private int[] snapshotOffsets;
+
+	public int[] getInitialTree() {
+		return initialTree;
+	}
+
+	public void setInitialTree(int[] initialTree) {
+		this.initialTree = initialTree;
+	}
+
+	public int[] getEvents() {
+		return events;
+	}
+
+	public void setEvents(int[] events) {
+		this.events = events;
+	}
+
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	public void setSnapshotInterval(int snapshotInterval) {
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	public List<int[]> getSnapshots() {
+		return snapshots;
+	}
+
+	public void setSnapshots(List<int[]> snapshots) {
+		this.snapshots = snapshots;
+	}
+
+	public int[] getSnapshotOffsets() {
+		return snapshotOffsets;
+	}
+
+	public void setSnapshotOffsets(int[] snapshotOffsets) {
+		this.snapshotOffsets = snapshotOffsets;
+	}
+
+	/**
+	 * Rebuild the heap as it stood right before pop number `pop`
+	 * @param pop
+	 * @return a fresh copy of the heap
+	 */
+	public int[] tree(int pop) {
+		int tree[];
+		int heapSize;
+		int pops;
+		int offset;
+
+		int snapshot = snapshotInterval > 0 ? Math.min(pop / snapshotInterval, snapshots.size() - 1) : -1;
+		if (snapshot >= 0) {
+			tree = Arrays.copyOf(snapshots.get(snapshot), initialTree.length);
+			heapSize = snapshots.get(snapshot).length;
+			pops = snapshot * snapshotInterval;
+			offset = snapshotOffsets[snapshot];
+		} else {
+			tree = initialTree.clone();
+			heapSize = tree.length;
+			pops = 0;
+			offset = 0;
+		}
+
+		for (; offset < events.length; offset += 2) {
+			if (events[offset] == POP) {
+				if (pops == pop) {
+					break;
+				}
+				tree[0] = tree[--heapSize];
+				pops++;
+			} else {
+				int i = events[offset];
+				int j = events[offset + 1];
+				int element = tree[i];
+				tree[i] = tree[j];
+				tree[j] = element;
+			}
+		}
+		return Arrays.copyOf(tree, heapSize);
+	}
+
+}
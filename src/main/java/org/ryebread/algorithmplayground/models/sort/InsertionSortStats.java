@@ -3,7 +3,7 @@ package org.ryebread.algorithmplayground.models.sort;
 public class InsertionSortStats {
 
 	private Integer focusIndex;
-	private Integer[] sequence;
+	private int[] sequence;
 
 	public Integer getFocusIndex() {
 		return focusIndex;
@@ -13,11 +13,11 @@ public class InsertionSortStats {
 		this.focusIndex = focusIndex;
 	}
 
-	public Integer[] getSequence() {
+	public int[] getSequence() {
 		return sequence;
 	}
 
-	public void setSequence(Integer[] sequence) {
+	public void setSequence(int[] sequence) {
 		this.sequence = sequence;
 	}
 
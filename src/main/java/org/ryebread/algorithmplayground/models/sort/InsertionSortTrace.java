@@ -0,0 +1,64 @@
+package org.ryebread.algorithmplayground.models.sort;
+
+import java.util.List;
+
+/**
+ * A compact alternative to a list of {@link InsertionSortStats}.
+ *
+ * Every pass of insertion sort takes the element at index i and drops it into place at some index
+ * j <= i, shifting everything in between up one slot.  Pass s always takes the element at index s,
+ * so rather than copying the whole sequence after each pass, step s is stored as the one int
+ * `focusIndices[s]`: where that element landed.  Step 0 is the unsorted input and moves nothing.
+ *
+ * A full copy of the sequence is kept every `keyframeInterval` steps, so keyframes.get(m) is the
+ * sequence as of step m * keyframeInterval.  Any frame can be rebuilt by taking the nearest
+ * keyframe at or before it and replaying the moves after it -- see {@link #frame(int)}.
+ */
+public class InsertionSortTrace {
+
+	private int keyframeInterval;
+	private List<int[]> keyframes;
+	private int[] focusIndices;
+
+	public int getKeyframeInterval() {
+		return keyframeInterval;
+	}
+
+	public void setKeyframeInterval(int keyframeInterval) {
+		this.keyframeInterval = keyframeInterval;
+	}
+
+	public List<int[]> getKeyframes() {
+		return keyframes;
+	}
+
+	public void setKeyframes(List<int[]> keyframes) {
+		this.keyframes = keyframes;
+	}
+
+	public int[] getFocusIndices() {
+		return focusIndices;
+	}
+
+	public void setFocusIndices(int[] focusIndices) {
+		this.focusIndices = focusIndices;
+	}
+
+	/**
+	 * Rebuild the sequence as it stood after `step`
+	 * @param step
+	 * @return a fresh copy of the sequence
+	 */
+	public int[] frame(int step) {
+		int keyframe = step / keyframeInterval;
+		int sequence[] = keyframes.get(keyframe).clone();
+		for (int s = keyframe * keyframeInterval + 1; s <= step; s++) {
+			int focus = focusIndices[s];
+			int element = sequence[s];
+			System.arraycopy(sequence, focus, sequence, focus + 1, s - focus);
+			sequence[focus] = element;
+		}
+		return sequence;
+	}
+
+}
@@ -5,6 +5,7 @@ import java.util.List;
 public class MergeSortView {
 
 	private List<List<ArrayPair>> pairLists;
+	private int[] runStarts;
 
 	public List<List<ArrayPair>> getPairLists() {
 		return pairLists;
@@ -13,5 +14,16 @@ public class MergeSortView {
 	public void setPairLists(List<List<ArrayPair>> pairLists) {
 		this.pairLists = pairLists;
 	}
+
+	/**
+	 * Where each run found by the natural merge sort starts, or null for the top-down merge sort
+	 */
+	public int[] getRunStarts() {
+		return runStarts;
+	}
+
+	public void setRunStarts(int[] runStarts) {
+		this.runStarts = runStarts;
+	}
 	
 }
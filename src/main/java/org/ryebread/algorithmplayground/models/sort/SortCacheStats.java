@@ -0,0 +1,60 @@
+package org.ryebread.algorithmplayground.models.sort;
+
+public class SortCacheStats {
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private int entries;
+	private long bytes;
+	private long maxBytes;
+
+	public long getHits() {
+		return hits;
+	}
+
+	public void setHits(long hits) {
+		this.hits = hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public void setMisses(long misses) {
+		this.misses = misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public void setEvictions(long evictions) {
+		this.evictions = evictions;
+	}
+
+	public int getEntries() {
+		return entries;
+	}
+
+	public void setEntries(int entries) {
+		this.entries = entries;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public void setBytes(long bytes) {
+		this.bytes = bytes;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+}
@@ -0,0 +1,82 @@
+package org.ryebread.algorithmplayground.models.sort;
+
+/**
+ * Where a sort job has got to.  `progress` is a percentage; `nanos` is how long the sort ran for, once
+ * it's finished, and `error` is only set if it failed
+ */
+public class SortJobStatus {
+
+	private String id;
+	private String state;
+	private String algorithm;
+	private int size;
+	private int bits;
+	private int progress;
+	private Long nanos;
+	private String error;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getState() {
+		return state;
+	}
+
+	public void setState(String state) {
+		this.state = state;
+	}
+
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	public void setAlgorithm(String algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public int getBits() {
+		return bits;
+	}
+
+	public void setBits(int bits) {
+		this.bits = bits;
+	}
+
+	public int getProgress() {
+		return progress;
+	}
+
+	public void setProgress(int progress) {
+		this.progress = progress;
+	}
+
+	public Long getNanos() {
+		return nanos;
+	}
+
+	public void setNanos(Long nanos) {
+		this.nanos = nanos;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+}
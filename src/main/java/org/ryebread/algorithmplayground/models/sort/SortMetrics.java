@@ -0,0 +1,63 @@
+package org.ryebread.algorithmplayground.models.sort;
+
+/**
+ * What one sort cost.  The counts are null unless the JVM was started with -Dsort.instrumentation=true
+ */
+public class SortMetrics {
+
+	private String algorithm;
+	private int size;
+	private long nanos;
+	private Long comparisons;
+	private Long moves;
+	private Long auxBytes;
+
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	public void setAlgorithm(String algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	public void setNanos(long nanos) {
+		this.nanos = nanos;
+	}
+
+	public Long getComparisons() {
+		return comparisons;
+	}
+
+	public void setComparisons(Long comparisons) {
+		this.comparisons = comparisons;
+	}
+
+	public Long getMoves() {
+		return moves;
+	}
+
+	public void setMoves(Long moves) {
+		this.moves = moves;
+	}
+
+	public Long getAuxBytes() {
+		return auxBytes;
+	}
+
+	public void setAuxBytes(Long auxBytes) {
+		this.auxBytes = auxBytes;
+	}
+
+}
@@ -2,6 +2,7 @@ package org.ryebread.algorithmplayground.services.graph;
 
 import java.util.AbstractQueue;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -9,11 +10,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import org.ryebread.algorithmplayground.structures.graph.CsrGraph;
 import org.ryebread.algorithmplayground.structures.graph.Edge;
 import org.ryebread.algorithmplayground.structures.graph.EdgeType;
 import org.ryebread.algorithmplayground.structures.graph.Graph;
 import org.ryebread.algorithmplayground.structures.graph.WeightedAdjacencyMapGraph;
 import org.ryebread.algorithmplayground.structures.graph.WeightedGraph;
+import org.ryebread.algorithmplayground.structures.heap.IndexedMinHeap;
 import org.ryebread.algorithmplayground.structures.unionfind.UnionFind;
 import org.springframework.stereotype.Service;
 
@@ -61,24 +64,20 @@ public class GraphServiceImpl implements GraphService {
 
 	@Override
 	public <T extends Comparable<T>> WeightedGraph<T> prims(WeightedGraph<T> graph) {
-		final Map<T, Long> valueMap = new HashMap<>();
-		Map<T, T> parentMap = new HashMap<>();
+		// The heap works on dense int ids, so number the vertices
+		List<T> vertices = new ArrayList<>(graph.getVertices());
+		Map<T, Integer> ids = indexVertices(vertices);
+		int n = vertices.size();
+		long values[] = new long[n];
+		int parents[] = new int[n];
 
 		// Starting out, all minimum weights need to be as large as possible
-		// and all parents are set to 'null';
-		for (T key : graph.getVertices()) {
-			valueMap.put(key, Long.MAX_VALUE);
-			parentMap.put(key, null);
-		}
-
-		// Use the value map as the comparator for the heap.
-		AbstractQueue<T> heap = new PriorityQueue<>((a, b) -> {
-			return valueMap.get(a).compareTo(valueMap.get(b));
-		});
-
-		// Fill the heap with every vertex in the graph.
-		for (T key : graph.getVertices()) {
-			heap.add(key);
+		// and all parents are set to -1, for none.  Every vertex goes on the heap
+		IndexedMinHeap heap = new IndexedMinHeap(n);
+		for (int id = 0; id < n; id++) {
+			values[id] = Long.MAX_VALUE;
+			parents[id] = -1;
+			heap.insert(id, Long.MAX_VALUE);
 		}
 
 		/*
@@ -89,19 +88,18 @@ public class GraphServiceImpl implements GraphService {
 		 * 	   edge against the currently stored minimum weight 
 		 * - if the edge's weight is lesser than the stored weight for that vertex, update the parent
 		 *     to be `head`, and update the minimum weight to be that of the edge
-		 * - delete then add the edge's vertex from the heap to recalibrate the heap order
+		 * - decrease the edge's vertex's key, moving it up the heap to where its new weight belongs
 		 */
 		while (!heap.isEmpty()) {
-			T head = heap.remove();
-			for (Edge<T> edge : graph.getEdges(head)) {
-				T element = edge.to();
+			int head = heap.pop();
+			for (Edge<T> edge : graph.getEdges(vertices.get(head))) {
+				int element = ids.get(edge.to());
 				if (heap.contains(element)) {
-					Long currentWeight = valueMap.get(element);
-					if (edge.getWeight() < currentWeight) {
-						parentMap.put(element, head);
-						valueMap.put(element, edge.getWeight());
-						heap.remove(element);
-						heap.add(element);
+					long weight = edge.getWeight();
+					if (weight < values[element]) {
+						parents[element] = head;
+						values[element] = weight;
+						heap.decreaseKey(element, weight);
 					}
 				}
 			}
@@ -110,10 +108,9 @@ public class GraphServiceImpl implements GraphService {
 		WeightedGraph<T> minimumSpanningTree = new WeightedAdjacencyMapGraph<T>(graph.getVertices(),
 				EdgeType.UNDIRECTED);
 
-		for (T vertex : minimumSpanningTree.getVertices()) {
-			T parentVertex = parentMap.get(vertex);
-			if (parentVertex != null) {
-				minimumSpanningTree.addEdge(parentVertex, vertex, valueMap.get(vertex));
+		for (int id = 0; id < n; id++) {
+			if (parents[id] >= 0) {
+				minimumSpanningTree.addEdge(vertices.get(parents[id]), vertices.get(id), values[id]);
 			}
 		}
 		return minimumSpanningTree;
@@ -235,54 +232,136 @@ public class GraphServiceImpl implements GraphService {
 
 	@Override
 	public <T extends Comparable<T>> WeightedGraph<T> dijkstras(WeightedGraph<T> graph, T start) {
-		Map<T, T> parentMap = new HashMap<>();
-		Map<T, Boolean> scannedMap = new HashMap<>();
-		final Map<T, Long> distanceMap = new HashMap<>();
+		List<T> vertices;
+		int parents[];
+		CsrGraph<T> csrGraph = graph instanceof CsrGraph ? (CsrGraph<T>) graph : null;
+		int parentEdges[] = null;
+		long parentWeights[] = null;
+		if (csrGraph != null) {
+			vertices = csrGraph.getVertices();
+			parentEdges = new int[vertices.size()];
+			parents = dijkstrasParents(csrGraph, csrGraph.indexOf(start), parentEdges);
+		} else {
+			vertices = new ArrayList<>(graph.getVertices());
+			parentWeights = new long[vertices.size()];
+			parents = dijkstrasParents(graph, vertices, start, parentWeights);
+		}
+		int n = vertices.size();
 
-		for (T vertex : graph.getVertices()) {
-			parentMap.put(vertex, null);
-			scannedMap.put(vertex, false);
-			distanceMap.put(vertex, Long.MAX_VALUE);
+		WeightedGraph<T> shortestPathGraph = new WeightedAdjacencyMapGraph<>(graph.getVertices());
+
+		for (int id = 0; id < n; id++) {
+			if (parents[id] >= 0) {
+				T from = vertices.get(parents[id]);
+				T to = vertices.get(id);
+				// Parallel edges each keep their own weight, so take the one the search relaxed rather than
+				// looking the edge up again
+				long weight = csrGraph != null ? csrGraph.weight(parentEdges[id]) : parentWeights[id];
+				shortestPathGraph.addEdge(from, to, weight);
+			}
 		}
 
-		// Use the value map as the comparator for the heap.
-		AbstractQueue<T> heap = new PriorityQueue<>((a, b) -> {
-			return distanceMap.get(a).compareTo(distanceMap.get(b));
-		});
+		return shortestPathGraph;
+	}
+
+	/**
+	 * @return the index in `vertices` of each vertex's parent in the shortest path tree from `start`,
+	 * or -1 for the start and any vertex it can't reach
+	 * @param parentWeights - filled in with the weight of the edge each vertex was reached by, wherever
+	 *                        its parent is set
+	 */
+	private <T> int[] dijkstrasParents(WeightedGraph<T> graph, List<T> vertices, T start, long[] parentWeights) {
+		Map<T, Integer> ids = indexVertices(vertices);
+		int n = vertices.size();
+		int parents[] = new int[n];
+		boolean scanned[] = new boolean[n];
+		long distances[] = new long[n];
+		Arrays.fill(parents, -1);
+		Arrays.fill(distances, Long.MAX_VALUE);
+
+		IndexedMinHeap heap = new IndexedMinHeap(n);
 
 		//Distance from the starting vertex to itself is always 0
-		distanceMap.put(start, 0L);
-		heap.add(start);
+		int startId = ids.get(start);
+		distances[startId] = 0L;
+		heap.insert(startId, 0L);
 
 		while (!heap.isEmpty()) {
-			T parent = heap.remove();
-			Long parentDistance = distanceMap.get(parent);
-			for (Edge<T> edge : graph.getEdges(parent)) {
-				if (!scannedMap.get(edge.to())) {
-					Long proposedDistance = parentDistance + edge.getWeight();
-					if (proposedDistance < distanceMap.get(edge.to())) {
-						distanceMap.put(edge.to(), proposedDistance);
-						parentMap.put(edge.to(), parent);
-						heap.remove(edge.to());
-						heap.add(edge.to());
+			int parent = heap.pop();
+			long parentDistance = distances[parent];
+			for (Edge<T> edge : graph.getEdges(vertices.get(parent))) {
+				int to = ids.get(edge.to());
+				if (!scanned[to]) {
+					long proposedDistance = parentDistance + edge.getWeight();
+					if (proposedDistance < distances[to]) {
+						distances[to] = proposedDistance;
+						parents[to] = parent;
+						parentWeights[to] = edge.getWeight();
+						// Reached for the first time, or by a shorter path than before
+						if (heap.contains(to)) {
+							heap.decreaseKey(to, proposedDistance);
+						} else {
+							heap.insert(to, proposedDistance);
+						}
 					}
 				}
 			}
-			scannedMap.put(parent, true);
+			scanned[parent] = true;
 		}
+		return parents;
+	}
 
-		WeightedGraph<T> shortestPathGraph = new WeightedAdjacencyMapGraph<>(graph.getVertices());
+	/**
+	 * The same search over a graph in CSR form, which numbers its own vertices and hands out edges as
+	 * array indices, so the search never touches a map or an {@link Edge}
+	 * @param parentEdges - filled in with the number of the edge each vertex was reached by, wherever
+	 *                      its parent is set
+	 */
+	private <T> int[] dijkstrasParents(CsrGraph<T> graph, int startId, int[] parentEdges) {
+		int n = graph.numVertices();
+		int parents[] = new int[n];
+		boolean scanned[] = new boolean[n];
+		long distances[] = new long[n];
+		Arrays.fill(parents, -1);
+		Arrays.fill(distances, Long.MAX_VALUE);
+
+		IndexedMinHeap heap = new IndexedMinHeap(n);
+		distances[startId] = 0L;
+		heap.insert(startId, 0L);
 
-		for (T vertex : shortestPathGraph.getVertices()) {
-			if (parentMap.get(vertex) != null) {
-				T from = parentMap.get(vertex);
-				T to = vertex;
-				Long weight = graph.getEdge(from, to).getWeight();
-				shortestPathGraph.addEdge(from, to, weight);
+		while (!heap.isEmpty()) {
+			int parent = heap.pop();
+			long parentDistance = distances[parent];
+			for (int edge = graph.edgeStart(parent); edge < graph.edgeEnd(parent); edge++) {
+				int to = graph.target(edge);
+				if (!scanned[to]) {
+					long proposedDistance = parentDistance + graph.weight(edge);
+					if (proposedDistance < distances[to]) {
+						distances[to] = proposedDistance;
+						parents[to] = parent;
+						parentEdges[to] = edge;
+						if (heap.contains(to)) {
+							heap.decreaseKey(to, proposedDistance);
+						} else {
+							heap.insert(to, proposedDistance);
+						}
+					}
+				}
 			}
+			scanned[parent] = true;
 		}
+		return parents;
+	}
 
-		return shortestPathGraph;
+	/**
+	 * @return each vertex's index in `vertices`
+	 */
+	private <T> Map<T, Integer> indexVertices(List<T> vertices) {
+		Map<T, Integer> ids = new HashMap<>(vertices.size() * 2);
+		for (int id = 0; id < vertices.size(); id++) {
+			ids.put(vertices.get(id), id);
+		}
+		return ids;
 	}
 
 	private <T extends Comparable<T>> Map<T, Boolean> initVisitedMap(Graph<T> graph) {
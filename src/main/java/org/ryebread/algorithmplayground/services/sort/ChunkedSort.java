@@ -0,0 +1,203 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+
+/**
+ * Sorts an array a chunk at a time and then merges the chunks, reporting how far along it is as it
+ * goes.
+ *
+ * The primitive sorts run over the whole array in one go, with no way of telling how far through they
+ * are or of stopping them part way.  Cutting the array into {@link #CHUNKS} pieces gives both: each
+ * piece is sorted with whichever algorithm was asked for, then the sorted pieces are merged pairwise,
+ * level by level, with the array and a single buffer trading places as in {@link ParallelMergeSort}.
+ * Progress is reported after every chunk and every {@link #MERGE_STEP} elements merged, and the
+ * thread's interrupt flag is checked at the same points.
+ *
+ * Work is estimated as n lg(chunk length) for sorting the chunks plus n for every merge level, which
+ * is about right for the comparison sorts.  The merges cost lg(CHUNKS) extra passes over the array:
+ * cheap next to an n lg n sort, but noticeable next to the few passes of the radix sort.
+ *
+ * @author Ryan
+ */
+final class ChunkedSort {
+
+	static final int CHUNKS = 16;
+
+	/*
+	 * Below this many elements, the array is sorted as a single chunk
+	 */
+	static final int CHUNKED_CUTOFF = 1 << 20;
+
+	private static final int MERGE_STEP = 1 << 16;
+
+	private ChunkedSort() {
+	}
+
+	/**
+	 * @param progress - handed the percentage done whenever it changes, ending with 100
+	 * @throws CancellationException if the thread is interrupted part way through
+	 */
+	static void sort(int[] elements, SortAlgorithm algorithm, IntConsumer progress) {
+		int n = elements.length;
+		int chunks = n < CHUNKED_CUTOFF ? 1 : CHUNKS;
+		Progress tracker = new Progress(n, chunks, progress);
+		if (chunks == 1) {
+			PrimitiveSorts.sort(elements, algorithm);
+			tracker.sorted(n);
+			return;
+		}
+
+		for (int c = 0; c < chunks; c++) {
+			checkInterrupted();
+			int low = chunkLow(n, chunks, c);
+			int chunk[] = Arrays.copyOfRange(elements, low, chunkLow(n, chunks, c + 1));
+			PrimitiveSorts.sort(chunk, algorithm);
+			System.arraycopy(chunk, 0, elements, low, chunk.length);
+			tracker.sorted(chunk.length);
+		}
+
+		int source[] = elements;
+		int destination[] = new int[n];
+		for (int width = 1; width < chunks; width <<= 1) {
+			for (int c = 0; c < chunks; c += width << 1) {
+				int low = chunkLow(n, chunks, c);
+				int middle = chunkLow(n, chunks, Math.min(c + width, chunks));
+				int high = chunkLow(n, chunks, Math.min(c + (width << 1), chunks));
+				merge(source, low, middle, high, destination, tracker);
+			}
+			int swap[] = source;
+			source = destination;
+			destination = swap;
+		}
+		if (source != elements) {
+			System.arraycopy(source, 0, elements, 0, n);
+		}
+	}
+
+	static void sort(long[] elements, SortAlgorithm algorithm, IntConsumer progress) {
+		int n = elements.length;
+		int chunks = n < CHUNKED_CUTOFF ? 1 : CHUNKS;
+		Progress tracker = new Progress(n, chunks, progress);
+		if (chunks == 1) {
+			PrimitiveSorts.sort(elements, algorithm);
+			tracker.sorted(n);
+			return;
+		}
+
+		for (int c = 0; c < chunks; c++) {
+			checkInterrupted();
+			int low = chunkLow(n, chunks, c);
+			long chunk[] = Arrays.copyOfRange(elements, low, chunkLow(n, chunks, c + 1));
+			PrimitiveSorts.sort(chunk, algorithm);
+			System.arraycopy(chunk, 0, elements, low, chunk.length);
+			tracker.sorted(chunk.length);
+		}
+
+		long source[] = elements;
+		long destination[] = new long[n];
+		for (int width = 1; width < chunks; width <<= 1) {
+			for (int c = 0; c < chunks; c += width << 1) {
+				int low = chunkLow(n, chunks, c);
+				int middle = chunkLow(n, chunks, Math.min(c + width, chunks));
+				int high = chunkLow(n, chunks, Math.min(c + (width << 1), chunks));
+				merge(source, low, middle, high, destination, tracker);
+			}
+			long swap[] = source;
+			source = destination;
+			destination = swap;
+		}
+		if (source != elements) {
+			System.arraycopy(source, 0, elements, 0, n);
+		}
+	}
+
+	/**
+	 * Merge source[low, middle) and source[middle, high) into the same range of `destination`, taking
+	 * from the left on ties so the sort stays stable.  A lone run with nothing to merge against is
+	 * copied across as is
+	 */
+	private static void merge(int[] source, int low, int middle, int high, int[] destination, Progress progress) {
+		int left = low;
+		int right = middle;
+		int k = low;
+		while (k < high) {
+			checkInterrupted();
+			int stepHigh = Math.min(high, k + MERGE_STEP);
+			int stepLow = k;
+			for (; k < stepHigh; k++) {
+				if (right == high || (left < middle && source[left] <= source[right])) {
+					destination[k] = source[left++];
+				} else {
+					destination[k] = source[right++];
+				}
+			}
+			progress.merged(stepHigh - stepLow);
+		}
+	}
+
+	private static void merge(long[] source, int low, int middle, int high, long[] destination, Progress progress) {
+		int left = low;
+		int right = middle;
+		int k = low;
+		while (k < high) {
+			checkInterrupted();
+			int stepHigh = Math.min(high, k + MERGE_STEP);
+			int stepLow = k;
+			for (; k < stepHigh; k++) {
+				if (right == high || (left < middle && source[left] <= source[right])) {
+					destination[k] = source[left++];
+				} else {
+					destination[k] = source[right++];
+				}
+			}
+			progress.merged(stepHigh - stepLow);
+		}
+	}
+
+	private static int chunkLow(int n, int chunks, int c) {
+		return (int) ((long) n * c / chunks);
+	}
+
+	private static void checkInterrupted() {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("Sort interrupted");
+		}
+	}
+
+	private static final class Progress {
+
+		private final IntConsumer consumer;
+		private final long sortWorkPerElement;
+		private final long total;
+		private long done;
+		private int percent = -1;
+
+		Progress(int n, int chunks, IntConsumer consumer) {
+			this.consumer = consumer;
+			int chunkLength = Math.max(1, n / chunks);
+			this.sortWorkPerElement = 32 - Integer.numberOfLeadingZeros(chunkLength);
+			int mergeLevels = 31 - Integer.numberOfLeadingZeros(chunks);
+			this.total = (long) n * (sortWorkPerElement + mergeLevels);
+		}
+
+		void sorted(int elements) {
+			advance(elements * sortWorkPerElement);
+		}
+
+		void merged(int elements) {
+			advance(elements);
+		}
+
+		private void advance(long work) {
+			done += work;
+			int current = total == 0 ? 100 : (int) (100 * done / total);
+			if (current != percent) {
+				percent = current;
+				consumer.accept(current);
+			}
+		}
+	}
+
+}
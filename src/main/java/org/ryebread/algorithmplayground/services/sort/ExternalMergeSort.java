@@ -0,0 +1,421 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Sorts files that don't fit in memory.
+ *
+ * 1. Read as much of the input as the memory budget allows, sort it in memory, and write it out as a
+ *    sorted "run".  Repeat until the input is used up.
+ * 2. k-way merge the runs: a min-heap holds the current head of every run, so the smallest head is
+ *    always on top.  Pop it to the output, then push that run's next element.
+ *
+ * If there are too many runs to give each one a reasonably sized read buffer inside the budget, groups
+ * of runs are merged into longer runs first, and the merge repeats until they fit.
+ *
+ * Two file formats are supported:
+ * - longs: raw little-endian 64 bit integers, read and written through FileChannels and direct buffers
+ * - lines: UTF-8 text, one string per line
+ *
+ * Runs are written to a temporary directory next to the output file, which is deleted afterwards.
+ *
+ * @author Ryan
+ */
+final class ExternalMergeSort {
+
+	private static final int MIN_BUFFER = 8 * 1024;
+	private static final int MAX_BUFFER = 4 * 1024 * 1024;
+
+	/*
+	 * Rough cost of holding one line in memory, on top of its characters: the String, its array
+	 * header, and the reference to it
+	 */
+	private static final int LINE_OVERHEAD = 64;
+
+	private ExternalMergeSort() {
+	}
+
+	static void sortLongs(Path input, Path output, long memoryBudget) throws IOException {
+		/*
+		 * The in-memory sort is the integer radix sort, which needs an auxiliary array as large as
+		 * the run -- so a run can only take half the budget
+		 */
+		int runLength = (int) Math.max(1024, Math.min(Integer.MAX_VALUE - 8, memoryBudget / (2 * Long.BYTES)));
+		Path runDirectory = Files.createTempDirectory(directoryOf(output), "sort-runs");
+		try {
+			List<Path> runs = new ArrayList<>();
+			try (LongReader reader = new LongReader(input, bufferSize(memoryBudget / 16))) {
+				long run[] = new long[0];
+				while (reader.hasNext()) {
+					if (run.length == 0) {
+						run = new long[(int) Math.min(runLength, reader.remaining() / Long.BYTES + 1)];
+					}
+					int count = 0;
+					while (count < run.length && reader.hasNext()) {
+						run[count++] = reader.next();
+					}
+					long sorted[] = count == run.length ? run : Arrays.copyOf(run, count);
+					IntegerLsdRadixSort.sort(sorted);
+
+					Path runPath = runDirectory.resolve("run-" + runs.size());
+					try (LongWriter writer = new LongWriter(runPath, bufferSize(memoryBudget / 16))) {
+						for (long element : sorted) {
+							writer.write(element);
+						}
+					}
+					runs.add(runPath);
+				}
+			}
+
+			int maxFanIn = maxFanIn(memoryBudget);
+			while (runs.size() > maxFanIn) {
+				runs = mergeGroups(runs, maxFanIn, runDirectory, memoryBudget, ExternalMergeSort::mergeLongs);
+			}
+			mergeLongs(runs, output, memoryBudget);
+		} finally {
+			deleteDirectory(runDirectory);
+		}
+	}
+
+	static void sortLines(Path input, Path output, long memoryBudget) throws IOException {
+		Path runDirectory = Files.createTempDirectory(directoryOf(output), "sort-runs");
+		try {
+			List<Path> runs = new ArrayList<>();
+			try (BufferedReader reader = newReader(input, bufferSize(memoryBudget / 16))) {
+				List<String> lines = new ArrayList<>();
+				long used = 0;
+				String line = reader.readLine();
+				while (line != null) {
+					lines.add(line);
+					used += LINE_OVERHEAD + 2L * line.length();
+					line = reader.readLine();
+					if (line == null || used >= memoryBudget) {
+						String sorted[] = lines.toArray(new String[lines.size()]);
+						lines.clear();
+						used = 0;
+						// Three-way radix quicksort has no count array, so it's fine with any char
+						ParallelThreeWayRadixQuickSort.sort(sorted);
+
+						Path runPath = runDirectory.resolve("run-" + runs.size());
+						try (BufferedWriter writer = newWriter(runPath, bufferSize(memoryBudget / 16))) {
+							for (String element : sorted) {
+								writer.write(element);
+								writer.write('\n');
+							}
+						}
+						runs.add(runPath);
+					}
+				}
+			}
+
+			int maxFanIn = maxFanIn(memoryBudget);
+			while (runs.size() > maxFanIn) {
+				runs = mergeGroups(runs, maxFanIn, runDirectory, memoryBudget, ExternalMergeSort::mergeLines);
+			}
+			mergeLines(runs, output, memoryBudget);
+		} finally {
+			deleteDirectory(runDirectory);
+		}
+	}
+
+	private interface RunMerger {
+		void merge(List<Path> runs, Path output, long memoryBudget) throws IOException;
+	}
+
+	/**
+	 * Merge every `groupSize` runs into one longer run
+	 * @return the longer runs
+	 */
+	private static List<Path> mergeGroups(List<Path> runs, int groupSize, Path runDirectory, long memoryBudget,
+			RunMerger merger) throws IOException {
+		List<Path> merged = new ArrayList<>();
+		for (int i = 0; i < runs.size(); i += groupSize) {
+			List<Path> group = runs.subList(i, Math.min(i + groupSize, runs.size()));
+			Path mergedRun = Files.createTempFile(runDirectory, "merged", "");
+			merger.merge(group, mergedRun, memoryBudget);
+			for (Path run : group) {
+				Files.delete(run);
+			}
+			merged.add(mergedRun);
+		}
+		return merged;
+	}
+
+	private static void mergeLongs(List<Path> runs, Path output, long memoryBudget) throws IOException {
+		int buffer = bufferSize(memoryBudget / (runs.size() + 1));
+		PriorityQueue<LongReader> heap = new PriorityQueue<>(Math.max(1, runs.size()),
+				Comparator.comparingLong(LongReader::head));
+		try (LongWriter writer = new LongWriter(output, buffer);
+				OpenReaders<LongReader> readers = new OpenReaders<>(runs.size())) {
+			for (Path run : runs) {
+				LongReader reader = readers.add(new LongReader(run, buffer));
+				if (reader.advance()) {
+					heap.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+			while (!heap.isEmpty()) {
+				LongReader smallest = heap.remove();
+				writer.write(smallest.head());
+				if (smallest.advance()) {
+					heap.add(smallest);
+				} else {
+					smallest.close();
+				}
+			}
+		}
+	}
+
+	private static void mergeLines(List<Path> runs, Path output, long memoryBudget) throws IOException {
+		int buffer = bufferSize(memoryBudget / (runs.size() + 1));
+		PriorityQueue<LineReader> heap = new PriorityQueue<>(Math.max(1, runs.size()),
+				Comparator.comparing(LineReader::head));
+		try (BufferedWriter writer = newWriter(output, buffer);
+				OpenReaders<LineReader> readers = new OpenReaders<>(runs.size())) {
+			for (Path run : runs) {
+				LineReader reader = readers.add(new LineReader(run, buffer));
+				if (reader.advance()) {
+					heap.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+			while (!heap.isEmpty()) {
+				LineReader smallest = heap.remove();
+				writer.write(smallest.head());
+				writer.write('\n');
+				if (smallest.advance()) {
+					heap.add(smallest);
+				} else {
+					smallest.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * How many runs can be merged at once while still giving each one a MIN_BUFFER sized read buffer
+	 * (plus one for the output)
+	 */
+	private static int maxFanIn(long memoryBudget) {
+		return (int) Math.max(2, Math.min(Integer.MAX_VALUE, memoryBudget / MIN_BUFFER - 1));
+	}
+
+	private static int bufferSize(long share) {
+		return (int) Math.max(MIN_BUFFER, Math.min(MAX_BUFFER, share));
+	}
+
+	private static Path directoryOf(Path file) {
+		Path parent = file.toAbsolutePath().getParent();
+		return parent == null ? file.toAbsolutePath() : parent;
+	}
+
+	private static void deleteDirectory(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.list(directory)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Files.deleteIfExists(path);
+			}
+		}
+		Files.deleteIfExists(directory);
+	}
+
+	private static BufferedReader newReader(Path path, int bufferSize) throws IOException {
+		return new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8),
+				bufferSize);
+	}
+
+	private static BufferedWriter newWriter(Path path, int bufferSize) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8),
+				bufferSize);
+	}
+
+	/**
+	 * Reads little-endian longs off a FileChannel through a direct buffer
+	 */
+	private static class LongReader implements Closeable {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+		private long head;
+
+		LongReader(Path path, int bufferSize) throws IOException {
+			this.channel = FileChannel.open(path, StandardOpenOption.READ);
+			this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+			this.buffer.flip();
+		}
+
+		boolean hasNext() throws IOException {
+			if (buffer.remaining() >= Long.BYTES) {
+				return true;
+			}
+			buffer.compact();
+			while (buffer.position() < Long.BYTES) {
+				if (channel.read(buffer) < 0) {
+					break;
+				}
+			}
+			buffer.flip();
+			if (buffer.remaining() >= Long.BYTES) {
+				return true;
+			}
+			if (buffer.hasRemaining()) {
+				throw new IOException("Input length is not a multiple of " + Long.BYTES + " bytes");
+			}
+			return false;
+		}
+
+		long next() {
+			return buffer.getLong();
+		}
+
+		/**
+		 * Move on to the next long, so that it's available from {@link #head()}
+		 * @return false if the file is used up
+		 */
+		boolean advance() throws IOException {
+			if (!hasNext()) {
+				return false;
+			}
+			head = next();
+			return true;
+		}
+
+		long head() {
+			return head;
+		}
+
+		long remaining() throws IOException {
+			return channel.size() - channel.position() + buffer.remaining();
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes little-endian longs to a FileChannel through a direct buffer
+	 */
+	private static class LongWriter implements Closeable {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+
+		LongWriter(Path path, int bufferSize) throws IOException {
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		void write(long element) throws IOException {
+			if (buffer.remaining() < Long.BYTES) {
+				drain();
+			}
+			buffer.putLong(element);
+		}
+
+		private void drain() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				drain();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Every reader a merge has opened, so that all of them get closed however the merge ends -- not just
+	 * the ones still on its heap.  Closing one that's already closed does nothing, so a merge can close
+	 * each run as soon as it's used up
+	 */
+	private static final class OpenReaders<R extends Closeable> implements Closeable {
+
+		private final List<R> readers;
+
+		OpenReaders(int capacity) {
+			this.readers = new ArrayList<>(capacity);
+		}
+
+		R add(R reader) {
+			readers.add(reader);
+			return reader;
+		}
+
+		/**
+		 * Closes every reader, even if closing one fails.  The first failure is thrown once they're all
+		 * closed, with any after it suppressed onto it
+		 */
+		@Override
+		public void close() throws IOException {
+			IOException failure = null;
+			for (R reader : readers) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					if (failure == null) {
+						failure = e;
+					} else {
+						failure.addSuppressed(e);
+					}
+				}
+			}
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	private static class LineReader implements Closeable {
+
+		private final BufferedReader reader;
+		private String head;
+
+		LineReader(Path path, int bufferSize) throws IOException {
+			this.reader = newReader(path, bufferSize);
+		}
+
+		boolean advance() throws IOException {
+			head = reader.readLine();
+			return head != null;
+		}
+
+		String head() {
+			return head;
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
+}
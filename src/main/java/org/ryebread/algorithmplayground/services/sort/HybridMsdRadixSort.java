@@ -0,0 +1,151 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.Arrays;
+
+import org.ryebread.algorithmplayground.utils.ArrayUtilities;
+
+/**
+ * MSD radix sort without the recursion of {@link SortServiceImpl#msdRadixSort}.
+ *
+ * - Subarrays still waiting to be sorted go on an explicit stack of (low, high, charPosition) triples,
+ *   so a long shared prefix makes the stack longer instead of the call stack deeper
+ * - A subarray's buckets are pushed as soon as they're counted, so one count array is reused for
+ *   every subarray at every depth
+ * - Buckets with zero or one string are never pushed, and neither is the bucket of strings that ended
+ *   at this position, since there's nothing left to sort in either
+ * - Subarrays at or below the insertion cutoff are insertion sorted, comparing from the current
+ *   character position onwards, since every string in them already shares the characters before it
+ *
+ * @author Ryan
+ */
+final class HybridMsdRadixSort {
+
+	static final int DEFAULT_INSERTION_CUTOFF = 15;
+
+	private static final int RADIX = 256;
+
+	private HybridMsdRadixSort() {
+	}
+
+	static void sort(String[] strings, int insertionCutoff) {
+		if (strings.length < 2) {
+			return;
+		}
+		String aux[] = new String[strings.length];
+		int count[] = new int[RADIX + 2];
+		int stack[] = new int[3 * 64];
+		int top = 0;
+		long moves = 0;
+		long stackBytes = (long) Integer.BYTES * stack.length;
+
+		stack[top++] = 0;
+		stack[top++] = strings.length - 1;
+		stack[top++] = 0;
+
+		while (top > 0) {
+			int charPosition = stack[--top];
+			int high = stack[--top];
+			int low = stack[--top];
+
+			if (high - low < insertionCutoff) {
+				insertionSort(strings, low, high, charPosition);
+				continue;
+			}
+
+			// The same key-indexed counting as SortServiceImpl.msd
+			Arrays.fill(count, 0);
+			for (int i = low; i <= high; i++) {
+				count[charAt(strings[i], charPosition) + 2]++;
+			}
+			for (int r = 0; r < RADIX + 1; r++) {
+				count[r + 1] += count[r];
+			}
+			for (int i = low; i <= high; i++) {
+				aux[count[charAt(strings[i], charPosition) + 1]++] = strings[i];
+			}
+			System.arraycopy(aux, 0, strings, low, high - low + 1);
+			if (SortCounters.ENABLED) {
+				moves += 2L * (high - low + 1);
+			}
+
+			// count[c] is now where character c's bucket starts, and count[c + 1] where it ends
+			for (int c = 0; c < RADIX; c++) {
+				if (count[c + 1] - count[c] > 1) {
+					if (top + 3 > stack.length) {
+						stack = Arrays.copyOf(stack, stack.length << 1);
+						if (SortCounters.ENABLED) {
+							stackBytes += (long) Integer.BYTES * stack.length;
+						}
+					}
+					stack[top++] = low + count[c];
+					stack[top++] = low + count[c + 1] - 1;
+					stack[top++] = charPosition + 1;
+				}
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, moves);
+			SortCounters.recordAllocation((long) SortCounters.REFERENCE_BYTES * aux.length
+					+ (long) Integer.BYTES * count.length + stackBytes);
+		}
+	}
+
+	private static void insertionSort(String[] strings, int low, int high, int charPosition) {
+		long comparisons = 0;
+		long moves = 0;
+		for (int i = low + 1; i <= high; i++) {
+			int j = i;
+			for (; j > low && less(strings[j], strings[j - 1], charPosition); j--) {
+				ArrayUtilities.swap(strings, j, j - 1);
+				if (SortCounters.ENABLED) {
+					comparisons += charsCompared(strings[j], strings[j - 1], charPosition);
+					moves += 2;
+				}
+			}
+			if (SortCounters.ENABLED && j > low) {
+				comparisons += charsCompared(strings[j], strings[j - 1], charPosition);
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+		}
+	}
+
+	/**
+	 * Compare two strings from `charPosition` onwards.  A string that runs out first is the lesser,
+	 * just as charAt's -1 sorts it first in the radix passes
+	 */
+	private static boolean less(String a, String b, int charPosition) {
+		int length = Math.min(a.length(), b.length());
+		for (int i = charPosition; i < length; i++) {
+			char x = a.charAt(i);
+			char y = b.charAt(i);
+			if (x != y) {
+				return x < y;
+			}
+		}
+		return a.length() < b.length();
+	}
+
+	/**
+	 * @return how many pairs of characters {@link #less} compares before it has an answer.  Only called
+	 *         when counting, so `less` itself doesn't have to keep track
+	 */
+	static int charsCompared(String a, String b, int charPosition) {
+		int length = Math.min(a.length(), b.length());
+		for (int i = charPosition; i < length; i++) {
+			if (a.charAt(i) != b.charAt(i)) {
+				return i - charPosition + 1;
+			}
+		}
+		return Math.max(0, length - charPosition);
+	}
+
+	private static int charAt(String str, int pos) {
+		if (pos < str.length()) {
+			return str.charAt(pos);
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,129 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+/**
+ * LSD radix sort for ints and longs, one byte per pass.
+ *
+ * The same key-indexed counting as {@link SortServiceImpl#lsdRadixSort} on strings, with each byte
+ * of the number standing in for a character.  Two differences:
+ *
+ * - Negative numbers have their sign bit set, which would sort them after the positives.  Flipping the
+ *   sign bit of every key (x ^ MIN_VALUE) before taking its top byte puts them back in front
+ * - All of the byte counts are taken in a single read of the array up front.  Any byte that has the
+ *   same value in every element can't change the order, so its pass is skipped -- small or
+ *   narrow-range values often only need one or two passes out of four (or eight)
+ *
+ * The auxiliary array and the input swap roles after each pass rather than copying back.
+ *
+ * @author Ryan
+ */
+final class IntegerLsdRadixSort {
+
+	private static final int RADIX = 256;
+
+	private IntegerLsdRadixSort() {
+	}
+
+	static void sort(int[] elements) {
+		int n = elements.length;
+		int digits = Integer.BYTES;
+		int[] counts[] = new int[digits][RADIX + 1];
+		for (int i = 0; i < n; i++) {
+			int key = elements[i] ^ Integer.MIN_VALUE;
+			for (int d = 0; d < digits; d++) {
+				counts[d][((key >>> (d << 3)) & 0xFF) + 1]++;
+			}
+		}
+
+		int from[] = elements;
+		int to[] = new int[n];
+		if (SortCounters.ENABLED) {
+			SortCounters.recordAllocation((long) Integer.BYTES * n + (long) Integer.BYTES * digits * (RADIX + 1));
+		}
+		long moves = 0;
+		for (int d = 0; d < digits; d++) {
+			int count[] = counts[d];
+			if (isConstant(count, n)) {
+				continue;
+			}
+			for (int r = 0; r < RADIX; r++) {
+				count[r + 1] += count[r];
+			}
+			int shift = d << 3;
+			for (int i = 0; i < n; i++) {
+				to[count[((from[i] ^ Integer.MIN_VALUE) >>> shift) & 0xFF]++] = from[i];
+			}
+			int swap[] = from;
+			from = to;
+			to = swap;
+			moves += n;
+		}
+
+		if (from != elements) {
+			System.arraycopy(from, 0, elements, 0, n);
+			moves += n;
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, moves);
+		}
+	}
+
+	static void sort(long[] elements) {
+		int n = elements.length;
+		int digits = Long.BYTES;
+		int[] counts[] = new int[digits][RADIX + 1];
+		for (int i = 0; i < n; i++) {
+			long key = elements[i] ^ Long.MIN_VALUE;
+			for (int d = 0; d < digits; d++) {
+				counts[d][(int) ((key >>> (d << 3)) & 0xFF) + 1]++;
+			}
+		}
+
+		long from[] = elements;
+		long to[] = new long[n];
+		if (SortCounters.ENABLED) {
+			SortCounters.recordAllocation((long) Long.BYTES * n + (long) Integer.BYTES * digits * (RADIX + 1));
+		}
+		long moves = 0;
+		for (int d = 0; d < digits; d++) {
+			int count[] = counts[d];
+			if (isConstant(count, n)) {
+				continue;
+			}
+			for (int r = 0; r < RADIX; r++) {
+				count[r + 1] += count[r];
+			}
+			int shift = d << 3;
+			for (int i = 0; i < n; i++) {
+				to[count[(int) (((from[i] ^ Long.MIN_VALUE) >>> shift) & 0xFF)]++] = from[i];
+			}
+			long swap[] = from;
+			from = to;
+			to = swap;
+			moves += n;
+		}
+
+		if (from != elements) {
+			System.arraycopy(from, 0, elements, 0, n);
+			moves += n;
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, moves);
+		}
+	}
+
+	/**
+	 * @return true if a single byte value accounts for all n elements
+	 */
+	private static boolean isConstant(int[] count, int n) {
+		for (int r = 1; r <= RADIX; r++) {
+			if (count[r] == n) {
+				return true;
+			}
+			if (count[r] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,270 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import org.ryebread.algorithmplayground.utils.ArrayUtilities;
+
+/**
+ * Introspective sort: dual-pivot quicksort that watches its own recursion depth.
+ *
+ * - Each range is split three ways around two pivots, so there are fewer, shorter levels than with one
+ * - Once the depth passes 2 * lg(n), the partitioning has gone badly enough often enough that the rest
+ *   of the range is handed to {@link PrimitiveSorts#heapSort}, keeping the worst case at n*lg_n
+ * - Ranges below {@link #INSERTION_CUTOFF} are insertion sorted
+ *
+ * Everything happens in place.  The first two partitions recurse and the last is looped on, and both
+ * count against the depth limit, so the only extra memory is a call stack at most 2 * lg(n) deep.
+ *
+ * {@link #nthElement} is the same partitioning, following only the partition that holds n (quickselect),
+ * with the same heap sort fallback.  The int and long versions are identical apart from the element
+ * type.
+ *
+ * @author Ryan
+ */
+final class IntroSort {
+
+	static final int INSERTION_CUTOFF = 24;
+
+	private IntroSort() {
+	}
+
+	static void sort(int[] elements) {
+		sort(elements, 0, elements.length - 1, depthLimit(elements.length), new int[2]);
+	}
+
+	private static void sort(int[] elements, int low, int high, int depthLimit, int[] bounds) {
+		while (high - low >= INSERTION_CUTOFF) {
+			if (depthLimit-- == 0) {
+				PrimitiveSorts.heapSort(elements, low, high);
+				return;
+			}
+			partition(elements, low, high, bounds);
+			int lessThan = bounds[0];
+			int greaterThan = bounds[1];
+
+			sort(elements, low, lessThan - 1, depthLimit, bounds);
+			// With equal pivots, everything between them is equal too
+			if (elements[lessThan] != elements[greaterThan]) {
+				sort(elements, lessThan + 1, greaterThan - 1, depthLimit, bounds);
+			}
+			low = greaterThan + 1;
+		}
+		PrimitiveSorts.insertionSort(elements, low, high);
+	}
+
+	/**
+	 * Rearrange `elements` so that elements[n] is what it would be if the array were sorted, with
+	 * nothing greater before it and nothing less after it
+	 * @return elements[n]
+	 */
+	static int nthElement(int[] elements, int n) {
+		if (n < 0 || n >= elements.length) {
+			throw new IndexOutOfBoundsException("n: " + n + ", length: " + elements.length);
+		}
+		int low = 0;
+		int high = elements.length - 1;
+		int depthLimit = depthLimit(elements.length);
+		int bounds[] = new int[2];
+		while (high - low >= INSERTION_CUTOFF) {
+			if (depthLimit-- == 0) {
+				PrimitiveSorts.heapSort(elements, low, high);
+				return elements[n];
+			}
+			partition(elements, low, high, bounds);
+			int lessThan = bounds[0];
+			int greaterThan = bounds[1];
+
+			if (n < lessThan) {
+				high = lessThan - 1;
+			} else if (n > greaterThan) {
+				low = greaterThan + 1;
+			} else if (n == lessThan || n == greaterThan || elements[lessThan] == elements[greaterThan]) {
+				return elements[n];
+			} else {
+				low = lessThan + 1;
+				high = greaterThan - 1;
+			}
+		}
+		PrimitiveSorts.insertionSort(elements, low, high);
+		return elements[n];
+	}
+
+	/**
+	 * Partition [low, high] around two pivots p <= q, taken from a third and two thirds of the way
+	 * along the range:
+	 *
+	 * [ < p | p | p <= ... <= q | q | > q ]
+	 *
+	 * The single scan is the same as the three-way quicksort's, just with two pivots to compare against
+	 * instead of one.  The indices of p and q are written to `bounds`
+	 */
+	private static void partition(int[] elements, int low, int high, int[] bounds) {
+		long comparisons = 1;
+		long swaps = 4;
+		int third = (high - low) / 3;
+		ArrayUtilities.swap(elements, low, low + third);
+		ArrayUtilities.swap(elements, high, high - third);
+		if (elements[low] > elements[high]) {
+			ArrayUtilities.swap(elements, low, high);
+			if (SortCounters.ENABLED) {
+				swaps++;
+			}
+		}
+		int p = elements[low];
+		int q = elements[high];
+
+		// Every element is compared against p, and everything not below it against q as well
+		int lessThan = low + 1;
+		int greaterThan = high - 1;
+		int i = lessThan;
+		while (i <= greaterThan) {
+			int element = elements[i];
+			if (element < p) {
+				ArrayUtilities.swap(elements, lessThan++, i++);
+				if (SortCounters.ENABLED) {
+					comparisons++;
+					swaps++;
+				}
+			} else if (element > q) {
+				ArrayUtilities.swap(elements, i, greaterThan--);
+				if (SortCounters.ENABLED) {
+					comparisons += 2;
+					swaps++;
+				}
+			} else {
+				i++;
+				if (SortCounters.ENABLED) {
+					comparisons += 2;
+				}
+			}
+		}
+		ArrayUtilities.swap(elements, low, --lessThan);
+		ArrayUtilities.swap(elements, high, ++greaterThan);
+		bounds[0] = lessThan;
+		bounds[1] = greaterThan;
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, 2 * swaps);
+		}
+	}
+
+	static void sort(long[] elements) {
+		sort(elements, 0, elements.length - 1, depthLimit(elements.length), new int[2]);
+	}
+
+	private static void sort(long[] elements, int low, int high, int depthLimit, int[] bounds) {
+		while (high - low >= INSERTION_CUTOFF) {
+			if (depthLimit-- == 0) {
+				PrimitiveSorts.heapSort(elements, low, high);
+				return;
+			}
+			partition(elements, low, high, bounds);
+			int lessThan = bounds[0];
+			int greaterThan = bounds[1];
+
+			sort(elements, low, lessThan - 1, depthLimit, bounds);
+			// With equal pivots, everything between them is equal too
+			if (elements[lessThan] != elements[greaterThan]) {
+				sort(elements, lessThan + 1, greaterThan - 1, depthLimit, bounds);
+			}
+			low = greaterThan + 1;
+		}
+		PrimitiveSorts.insertionSort(elements, low, high);
+	}
+
+	/**
+	 * Rearrange `elements` so that elements[n] is what it would be if the array were sorted, with
+	 * nothing greater before it and nothing less after it
+	 * @return elements[n]
+	 */
+	static long nthElement(long[] elements, int n) {
+		if (n < 0 || n >= elements.length) {
+			throw new IndexOutOfBoundsException("n: " + n + ", length: " + elements.length);
+		}
+		int low = 0;
+		int high = elements.length - 1;
+		int depthLimit = depthLimit(elements.length);
+		int bounds[] = new int[2];
+		while (high - low >= INSERTION_CUTOFF) {
+			if (depthLimit-- == 0) {
+				PrimitiveSorts.heapSort(elements, low, high);
+				return elements[n];
+			}
+			partition(elements, low, high, bounds);
+			int lessThan = bounds[0];
+			int greaterThan = bounds[1];
+
+			if (n < lessThan) {
+				high = lessThan - 1;
+			} else if (n > greaterThan) {
+				low = greaterThan + 1;
+			} else if (n == lessThan || n == greaterThan || elements[lessThan] == elements[greaterThan]) {
+				return elements[n];
+			} else {
+				low = lessThan + 1;
+				high = greaterThan - 1;
+			}
+		}
+		PrimitiveSorts.insertionSort(elements, low, high);
+		return elements[n];
+	}
+
+	/**
+	 * Partition [low, high] around two pivots p <= q, taken from a third and two thirds of the way
+	 * along the range:
+	 *
+	 * [ < p | p | p <= ... <= q | q | > q ]
+	 *
+	 * The single scan is the same as the three-way quicksort's, just with two pivots to compare against
+	 * instead of one.  The indices of p and q are written to `bounds`
+	 */
+	private static void partition(long[] elements, int low, int high, int[] bounds) {
+		long comparisons = 1;
+		long swaps = 4;
+		int third = (high - low) / 3;
+		ArrayUtilities.swap(elements, low, low + third);
+		ArrayUtilities.swap(elements, high, high - third);
+		if (elements[low] > elements[high]) {
+			ArrayUtilities.swap(elements, low, high);
+			if (SortCounters.ENABLED) {
+				swaps++;
+			}
+		}
+		long p = elements[low];
+		long q = elements[high];
+
+		int lessThan = low + 1;
+		int greaterThan = high - 1;
+		int i = lessThan;
+		while (i <= greaterThan) {
+			long element = elements[i];
+			if (element < p) {
+				ArrayUtilities.swap(elements, lessThan++, i++);
+				if (SortCounters.ENABLED) {
+					comparisons++;
+					swaps++;
+				}
+			} else if (element > q) {
+				ArrayUtilities.swap(elements, i, greaterThan--);
+				if (SortCounters.ENABLED) {
+					comparisons += 2;
+					swaps++;
+				}
+			} else {
+				i++;
+				if (SortCounters.ENABLED) {
+					comparisons += 2;
+				}
+			}
+		}
+		ArrayUtilities.swap(elements, low, --lessThan);
+		ArrayUtilities.swap(elements, high, ++greaterThan);
+		bounds[0] = lessThan;
+		bounds[1] = greaterThan;
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, 2 * swaps);
+		}
+	}
+
+	private static int depthLimit(int length) {
+		return length < 2 ? 0 : 2 * (31 - Integer.numberOfLeadingZeros(length));
+	}
+
+}
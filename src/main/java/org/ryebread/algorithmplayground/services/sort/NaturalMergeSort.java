@@ -0,0 +1,513 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.Arrays;
+
+import org.ryebread.algorithmplayground.utils.ArrayUtilities;
+
+/**
+ * Natural merge sort, for input that's already partly in order.
+ *
+ * Rather than splitting blindly down to single elements, the array is cut into the runs already in it:
+ *
+ * - A run is a stretch that's ascending, or strictly descending.  Descending runs are reversed in place
+ *   (strictly, so that reversing never reorders equal elements)
+ * - Runs shorter than {@link #MIN_RUN} are extended to it with binary insertion sort, so random input
+ *   doesn't come apart into runs of one or two elements
+ * - Runs are merged pairwise, left to right, a level at a time -- the same order the merge sort view
+ *   shows them in
+ *
+ * Each merge first skips what's already in place: the start of the left run that's no greater than the
+ * right run's first element, and the end of the right run that's no less than the left run's last.  Runs
+ * that are already in order with each other cost two searches.  The rest is merged an element at a time
+ * until one side wins {@link #GALLOP} times in a row, and then the length of that side's streak is found
+ * with an exponential search and copied in one go.
+ *
+ * Sorted or reversed input is a single run and costs n - 1 comparisons.  The int and long versions are
+ * identical apart from the element type.
+ *
+ * @author Ryan
+ */
+final class NaturalMergeSort {
+
+	/*
+	 * Runs shorter than this are extended to it, and arrays no longer than it are insertion sorted whole
+	 */
+	static final int MIN_RUN = 32;
+
+	/*
+	 * How many wins in a row before a merge searches for the end of the streak
+	 */
+	private static final int GALLOP = 8;
+
+	private NaturalMergeSort() {
+	}
+
+	static void sort(int[] a) {
+		int n = a.length;
+		if (n < 2) {
+			return;
+		}
+		if (n <= MIN_RUN) {
+			binaryInsertionSort(a, 0, n, runEnd(a, 0, n));
+			return;
+		}
+		int starts[] = findRuns(a);
+		IntMerger merger = new IntMerger(a);
+		for (int runs = starts.length; runs > 1;) {
+			int merged = 0;
+			for (int i = 0; i < runs; i += 2) {
+				if (i + 1 < runs) {
+					merger.merge(starts[i], starts[i + 1], i + 2 < runs ? starts[i + 2] : n);
+				}
+				starts[merged++] = starts[i];
+			}
+			runs = merged;
+		}
+	}
+
+	/**
+	 * Cut `a` into runs, reversing and extending them in place the way {@link #sort(int[])} does -- except
+	 * that arrays no longer than {@link #MIN_RUN} keep their natural runs rather than being insertion sorted
+	 * whole, so there's still something to show being merged
+	 * @return the index each run starts at, in order
+	 */
+	static int[] findRuns(int[] a) {
+		int n = a.length;
+		int minRun = n <= MIN_RUN ? 1 : MIN_RUN;
+		int starts[] = new int[16];
+		int runs = 0;
+		for (int low = 0; low < n;) {
+			int high = runEnd(a, low, n);
+			if (high - low < minRun) {
+				int extended = Math.min(n, low + minRun);
+				binaryInsertionSort(a, low, extended, high);
+				high = extended;
+			}
+			if (runs == starts.length) {
+				starts = Arrays.copyOf(starts, runs << 1);
+			}
+			starts[runs++] = low;
+			low = high;
+		}
+		return Arrays.copyOf(starts, runs);
+	}
+
+	/**
+	 * Find where the run starting at `low` ends, and reverse it if it's descending
+	 * @return the index just past the run
+	 */
+	private static int runEnd(int[] a, int low, int high) {
+		int end = low + 1;
+		if (end < high) {
+			if (a[end++] < a[low]) {
+				while (end < high && a[end] < a[end - 1]) {
+					end++;
+				}
+				reverse(a, low, end);
+			} else {
+				while (end < high && a[end] >= a[end - 1]) {
+					end++;
+				}
+			}
+		}
+		if (SortCounters.ENABLED) {
+			// Every neighbouring pair in the run, and the one that ended it
+			SortCounters.record((end - low - 1) + (end < high ? 1 : 0), 0);
+		}
+		return end;
+	}
+
+	private static void reverse(int[] a, int low, int high) {
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, 2L * ((high - low) >>> 1));
+		}
+		for (high--; low < high;) {
+			ArrayUtilities.swap(a, low++, high--);
+		}
+	}
+
+	/**
+	 * Sort a[low, high), given that a[low, sorted) already is
+	 */
+	private static void binaryInsertionSort(int[] a, int low, int high, int sorted) {
+		long moves = 0;
+		for (int i = sorted; i < high; i++) {
+			int element = a[i];
+			// After any equal elements, to keep the sort stable
+			int position = search(element, a, low, i, true);
+			if (SortCounters.ENABLED) {
+				moves += i - position + 1;
+			}
+			System.arraycopy(a, position, a, position + 1, i - position);
+			a[position] = element;
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, moves);
+		}
+	}
+
+	/**
+	 * Like {@link #search}, but probes from+0, from+1, from+3, from+7... until one overshoots before
+	 * binary searching the last gap, so it's cheap when the answer is near `from`
+	 */
+	private static int gallop(int key, int[] a, int from, int to, boolean afterEqual) {
+		// Everything in a[from, low) belongs before the key, and everything in a[high, to) after it
+		int low = from;
+		int high = to;
+		long comparisons = 0;
+		for (int offset = 0; offset < to - from; offset = (offset << 1) + 1) {
+			int probe = from + offset;
+			if (SortCounters.ENABLED) {
+				comparisons++;
+			}
+			if (afterEqual ? a[probe] > key : a[probe] >= key) {
+				high = probe;
+				break;
+			}
+			low = probe + 1;
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, 0);
+		}
+		return search(key, a, low, high, afterEqual);
+	}
+
+	/**
+	 * Find the first element of the sorted a[low, high) that belongs after `key` -- the first greater than
+	 * it if `afterEqual`, otherwise the first no less than it
+	 * @return the index of that element, or `high` if there isn't one
+	 */
+	private static int search(int key, int[] a, int low, int high, boolean afterEqual) {
+		long comparisons = 0;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (SortCounters.ENABLED) {
+				comparisons++;
+			}
+			if (afterEqual ? a[middle] > key : a[middle] >= key) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, 0);
+		}
+		return low;
+	}
+
+	/**
+	 * Merges neighbouring runs of one array, keeping a scratch buffer for the left run between merges
+	 */
+	static final class IntMerger {
+
+		private final int[] a;
+		private int[] tmp = new int[0];
+
+		IntMerger(int[] a) {
+			this.a = a;
+		}
+
+		/**
+		 * Merge the sorted runs a[low, middle) and a[middle, high)
+		 */
+		void merge(int low, int middle, int high) {
+			if (low >= middle || middle >= high) {
+				return;
+			}
+			low = gallop(a[middle], a, low, middle, true);
+			if (low == middle) {
+				return;
+			}
+			high = gallop(a[middle - 1], a, middle, high, false);
+
+			int leftLength = middle - low;
+			if (tmp.length < leftLength) {
+				tmp = new int[Math.max(leftLength, Math.min(a.length >>> 1, tmp.length << 1))];
+				if (SortCounters.ENABLED) {
+					SortCounters.recordAllocation((long) Integer.BYTES * tmp.length);
+				}
+			}
+			System.arraycopy(a, low, tmp, 0, leftLength);
+
+			int i = 0;
+			int j = middle;
+			int k = low;
+			int leftWins = 0;
+			int rightWins = 0;
+			long comparisons = 0;
+			long moves = leftLength;
+			while (i < leftLength && j < high) {
+				if (leftWins >= GALLOP) {
+					int streak = gallop(a[j], tmp, i, leftLength, true) - i;
+					System.arraycopy(tmp, i, a, k, streak);
+					i += streak;
+					k += streak;
+					moves += streak;
+					leftWins = 0;
+				} else if (rightWins >= GALLOP) {
+					int streak = gallop(tmp[i], a, j, high, false) - j;
+					System.arraycopy(a, j, a, k, streak);
+					j += streak;
+					k += streak;
+					moves += streak;
+					rightWins = 0;
+				} else {
+					if (SortCounters.ENABLED) {
+						comparisons++;
+						moves++;
+					}
+					if (a[j] < tmp[i]) {
+						a[k++] = a[j++];
+						rightWins++;
+						leftWins = 0;
+					} else {
+						a[k++] = tmp[i++];
+						leftWins++;
+						rightWins = 0;
+					}
+				}
+			}
+			// Whatever's left of the right run is already in place after it
+			System.arraycopy(tmp, i, a, k, leftLength - i);
+			if (SortCounters.ENABLED) {
+				SortCounters.record(comparisons, moves + leftLength - i);
+			}
+		}
+	}
+
+	static void sort(long[] a) {
+		int n = a.length;
+		if (n < 2) {
+			return;
+		}
+		if (n <= MIN_RUN) {
+			binaryInsertionSort(a, 0, n, runEnd(a, 0, n));
+			return;
+		}
+		int starts[] = findRuns(a);
+		LongMerger merger = new LongMerger(a);
+		for (int runs = starts.length; runs > 1;) {
+			int merged = 0;
+			for (int i = 0; i < runs; i += 2) {
+				if (i + 1 < runs) {
+					merger.merge(starts[i], starts[i + 1], i + 2 < runs ? starts[i + 2] : n);
+				}
+				starts[merged++] = starts[i];
+			}
+			runs = merged;
+		}
+	}
+
+	/**
+	 * Cut `a` into runs, reversing and extending them in place the way {@link #sort(long[])} does -- except
+	 * that arrays no longer than {@link #MIN_RUN} keep their natural runs rather than being insertion sorted
+	 * whole, so there's still something to show being merged
+	 * @return the index each run starts at, in order
+	 */
+	static int[] findRuns(long[] a) {
+		int n = a.length;
+		int minRun = n <= MIN_RUN ? 1 : MIN_RUN;
+		int starts[] = new int[16];
+		int runs = 0;
+		for (int low = 0; low < n;) {
+			int high = runEnd(a, low, n);
+			if (high - low < minRun) {
+				int extended = Math.min(n, low + minRun);
+				binaryInsertionSort(a, low, extended, high);
+				high = extended;
+			}
+			if (runs == starts.length) {
+				starts = Arrays.copyOf(starts, runs << 1);
+			}
+			starts[runs++] = low;
+			low = high;
+		}
+		return Arrays.copyOf(starts, runs);
+	}
+
+	/**
+	 * Find where the run starting at `low` ends, and reverse it if it's descending
+	 * @return the index just past the run
+	 */
+	private static int runEnd(long[] a, int low, int high) {
+		int end = low + 1;
+		if (end < high) {
+			if (a[end++] < a[low]) {
+				while (end < high && a[end] < a[end - 1]) {
+					end++;
+				}
+				reverse(a, low, end);
+			} else {
+				while (end < high && a[end] >= a[end - 1]) {
+					end++;
+				}
+			}
+		}
+		if (SortCounters.ENABLED) {
+			// Every neighbouring pair in the run, and the one that ended it
+			SortCounters.record((end - low - 1) + (end < high ? 1 : 0), 0);
+		}
+		return end;
+	}
+
+	private static void reverse(long[] a, int low, int high) {
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, 2L * ((high - low) >>> 1));
+		}
+		for (high--; low < high;) {
+			ArrayUtilities.swap(a, low++, high--);
+		}
+	}
+
+	/**
+	 * Sort a[low, high), given that a[low, sorted) already is
+	 */
+	private static void binaryInsertionSort(long[] a, int low, int high, int sorted) {
+		long moves = 0;
+		for (int i = sorted; i < high; i++) {
+			long element = a[i];
+			// After any equal elements, to keep the sort stable
+			int position = search(element, a, low, i, true);
+			if (SortCounters.ENABLED) {
+				moves += i - position + 1;
+			}
+			System.arraycopy(a, position, a, position + 1, i - position);
+			a[position] = element;
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, moves);
+		}
+	}
+
+	/**
+	 * Like {@link #search}, but probes from+0, from+1, from+3, from+7... until one overshoots before
+	 * binary searching the last gap, so it's cheap when the answer is near `from`
+	 */
+	private static int gallop(long key, long[] a, int from, int to, boolean afterEqual) {
+		// Everything in a[from, low) belongs before the key, and everything in a[high, to) after it
+		int low = from;
+		int high = to;
+		long comparisons = 0;
+		for (int offset = 0; offset < to - from; offset = (offset << 1) + 1) {
+			int probe = from + offset;
+			if (SortCounters.ENABLED) {
+				comparisons++;
+			}
+			if (afterEqual ? a[probe] > key : a[probe] >= key) {
+				high = probe;
+				break;
+			}
+			low = probe + 1;
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, 0);
+		}
+		return search(key, a, low, high, afterEqual);
+	}
+
+	/**
+	 * Find the first element of the sorted a[low, high) that belongs after `key` -- the first greater than
+	 * it if `afterEqual`, otherwise the first no less than it
+	 * @return the index of that element, or `high` if there isn't one
+	 */
+	private static int search(long key, long[] a, int low, int high, boolean afterEqual) {
+		long comparisons = 0;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (SortCounters.ENABLED) {
+				comparisons++;
+			}
+			if (afterEqual ? a[middle] > key : a[middle] >= key) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, 0);
+		}
+		return low;
+	}
+
+	/**
+	 * Merges neighbouring runs of one array, keeping a scratch buffer for the left run between merges
+	 */
+	static final class LongMerger {
+
+		private final long[] a;
+		private long[] tmp = new long[0];
+
+		LongMerger(long[] a) {
+			this.a = a;
+		}
+
+		/**
+		 * Merge the sorted runs a[low, middle) and a[middle, high)
+		 */
+		void merge(int low, int middle, int high) {
+			if (low >= middle || middle >= high) {
+				return;
+			}
+			low = gallop(a[middle], a, low, middle, true);
+			if (low == middle) {
+				return;
+			}
+			high = gallop(a[middle - 1], a, middle, high, false);
+
+			int leftLength = middle - low;
+			if (tmp.length < leftLength) {
+				tmp = new long[Math.max(leftLength, Math.min(a.length >>> 1, tmp.length << 1))];
+				if (SortCounters.ENABLED) {
+					SortCounters.recordAllocation((long) Long.BYTES * tmp.length);
+				}
+			}
+			System.arraycopy(a, low, tmp, 0, leftLength);
+
+			int i = 0;
+			int j = middle;
+			int k = low;
+			int leftWins = 0;
+			int rightWins = 0;
+			long comparisons = 0;
+			long moves = leftLength;
+			while (i < leftLength && j < high) {
+				if (leftWins >= GALLOP) {
+					int streak = gallop(a[j], tmp, i, leftLength, true) - i;
+					System.arraycopy(tmp, i, a, k, streak);
+					i += streak;
+					k += streak;
+					moves += streak;
+					leftWins = 0;
+				} else if (rightWins >= GALLOP) {
+					int streak = gallop(tmp[i], a, j, high, false) - j;
+					System.arraycopy(a, j, a, k, streak);
+					j += streak;
+					k += streak;
+					moves += streak;
+					rightWins = 0;
+				} else {
+					if (SortCounters.ENABLED) {
+						comparisons++;
+						moves++;
+					}
+					if (a[j] < tmp[i]) {
+						a[k++] = a[j++];
+						rightWins++;
+						leftWins = 0;
+					} else {
+						a[k++] = tmp[i++];
+						leftWins++;
+						rightWins = 0;
+					}
+				}
+			}
+			// Whatever's left of the right run is already in place after it
+			System.arraycopy(tmp, i, a, k, leftLength - i);
+			if (SortCounters.ENABLED) {
+				SortCounters.record(comparisons, moves + leftLength - i);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,219 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * LSD radix sort for equal length strings that can spread each pass over several threads, and/or
+ * pull the keys out of the strings before sorting.
+ *
+ * Each pass is the same key-indexed counting sort as {@link SortServiceImpl#lsdRadixSort}, split up
+ * as:
+ *
+ * 1. the array is cut into one chunk per thread, and every chunk counts its own characters
+ * 2. the per-chunk counts are turned into per-chunk starting offsets -- every character's offsets
+ *    are independent of every other character's, so the characters are split between threads
+ * 3. every chunk scatters its strings into the auxiliary array starting from its own offsets
+ *
+ * Chunks scatter in array order and each one writes into its own slice of every character's range, so
+ * the sort stays stable.  Rather than copying the auxiliary array back after each pass, the two arrays
+ * swap roles.
+ *
+ * With packed keys, each character position is copied into its own byte column up front, and the
+ * passes shuffle an int index instead of String references.  A pass then only touches one small
+ * byte[] and the index, instead of going through every String to its backing array.
+ *
+ * @author Ryan
+ */
+final class ParallelLsdRadixSort {
+
+	/*
+	 * Below this many strings, it's not worth splitting a pass up
+	 */
+	static final int PARALLEL_CUTOFF = 1 << 14;
+
+	private static final int RADIX = 256;
+
+	private ParallelLsdRadixSort() {
+	}
+
+	static void sort(String[] strings, int len, boolean parallel, boolean packKeys) {
+		if (strings.length == 0) {
+			return;
+		}
+		int chunks = 1;
+		if (parallel && strings.length >= PARALLEL_CUTOFF) {
+			chunks = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+		}
+		if (packKeys) {
+			sortPacked(strings, len, chunks);
+		} else {
+			sortStrings(strings, len, chunks);
+		}
+	}
+
+	private static void sortStrings(String[] strings, int len, int chunks) {
+		int n = strings.length;
+		int[] counts[] = new int[chunks][RADIX];
+		String from[] = strings;
+		String to[] = new String[n];
+
+		for (int d = len - 1; d >= 0; d--) {
+			final int digit = d;
+			final String source[] = from;
+			final String destination[] = to;
+
+			forEachChunk(chunks, t -> {
+				int count[] = counts[t];
+				Arrays.fill(count, 0);
+				for (int i = chunkLow(n, chunks, t); i < chunkLow(n, chunks, t + 1); i++) {
+					count[source[i].charAt(digit)]++;
+				}
+			});
+
+			toOffsets(counts);
+
+			forEachChunk(chunks, t -> {
+				int offset[] = counts[t];
+				for (int i = chunkLow(n, chunks, t); i < chunkLow(n, chunks, t + 1); i++) {
+					destination[offset[source[i].charAt(digit)]++] = source[i];
+				}
+			});
+
+			from = destination;
+			to = source;
+		}
+
+		if (from != strings) {
+			System.arraycopy(from, 0, strings, 0, n);
+		}
+		if (SortCounters.ENABLED) {
+			// Every pass scatters every string once, and toOffsets takes two count arrays of its own
+			SortCounters.record(0, (long) n * len + (from != strings ? n : 0));
+			SortCounters.recordAllocation((long) SortCounters.REFERENCE_BYTES * n
+					+ (long) Integer.BYTES * RADIX * (chunks + 2L * len));
+		}
+	}
+
+	private static void sortPacked(String[] strings, int len, int chunks) {
+		int n = strings.length;
+		byte[] columns[] = new byte[len][n];
+
+		forEachChunk(chunks, t -> {
+			for (int i = chunkLow(n, chunks, t); i < chunkLow(n, chunks, t + 1); i++) {
+				for (int d = 0; d < len; d++) {
+					char c = strings[i].charAt(d);
+					if (c >= RADIX) {
+						throw new IllegalArgumentException("Character '" + c + "' cannot be packed into a byte");
+					}
+					columns[d][i] = (byte) c;
+				}
+			}
+		});
+
+		int[] counts[] = new int[chunks][RADIX];
+		int from[] = new int[n];
+		int to[] = new int[n];
+		for (int i = 0; i < n; i++) {
+			from[i] = i;
+		}
+
+		for (int d = len - 1; d >= 0; d--) {
+			final byte column[] = columns[d];
+			final int source[] = from;
+			final int destination[] = to;
+
+			forEachChunk(chunks, t -> {
+				int count[] = counts[t];
+				Arrays.fill(count, 0);
+				for (int i = chunkLow(n, chunks, t); i < chunkLow(n, chunks, t + 1); i++) {
+					count[column[source[i]] & 0xFF]++;
+				}
+			});
+
+			toOffsets(counts);
+
+			forEachChunk(chunks, t -> {
+				int offset[] = counts[t];
+				for (int i = chunkLow(n, chunks, t); i < chunkLow(n, chunks, t + 1); i++) {
+					destination[offset[column[source[i]] & 0xFF]++] = source[i];
+				}
+			});
+
+			from = destination;
+			to = source;
+		}
+
+		String sorted[] = new String[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = strings[from[i]];
+		}
+		System.arraycopy(sorted, 0, strings, 0, n);
+		if (SortCounters.ENABLED) {
+			// The passes move indices rather than strings, and the strings only move at the end
+			SortCounters.record(0, (long) n * len + 2L * n);
+			SortCounters.recordAllocation((long) len * n + 2L * Integer.BYTES * n
+					+ (long) SortCounters.REFERENCE_BYTES * n + (long) Integer.BYTES * RADIX * (chunks + 2L * len));
+		}
+	}
+
+	/**
+	 * Turns every chunk's character counts into the index that chunk starts writing each character at:
+	 *
+	 * offset[t][c] = (how many characters sort before c, over all chunks)
+	 *              + (how many c's are in the chunks before t)
+	 *
+	 * Each character's running total over the chunks is independent of the others, so those are done
+	 * in parallel.  Only the scan over the 256 character totals is sequential
+	 */
+	private static void toOffsets(int[][] counts) {
+		int chunks = counts.length;
+		int totals[] = new int[RADIX];
+
+		forEachCharacter(chunks, c -> {
+			int sum = 0;
+			for (int t = 0; t < chunks; t++) {
+				int count = counts[t][c];
+				counts[t][c] = sum;
+				sum += count;
+			}
+			totals[c] = sum;
+		});
+
+		int starts[] = new int[RADIX];
+		for (int c = 1; c < RADIX; c++) {
+			starts[c] = starts[c - 1] + totals[c - 1];
+		}
+
+		forEachCharacter(chunks, c -> {
+			for (int t = 0; t < chunks; t++) {
+				counts[t][c] += starts[c];
+			}
+		});
+	}
+
+	private static int chunkLow(int n, int chunks, int t) {
+		return (int) ((long) n * t / chunks);
+	}
+
+	private static void forEachChunk(int chunks, IntConsumer action) {
+		if (chunks == 1) {
+			action.accept(0);
+		} else {
+			IntStream.range(0, chunks).parallel().forEach(action);
+		}
+	}
+
+	private static void forEachCharacter(int chunks, IntConsumer action) {
+		if (chunks == 1) {
+			for (int c = 0; c < RADIX; c++) {
+				action.accept(c);
+			}
+		} else {
+			IntStream.range(0, RADIX).parallel().forEach(action);
+		}
+	}
+
+}
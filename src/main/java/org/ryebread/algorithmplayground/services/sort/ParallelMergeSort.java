@@ -0,0 +1,318 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join merge sort over primitive arrays.
+ *
+ * One buffer the size of the input is allocated up front and the two arrays trade places as
+ * "source" and "destination" on every level of the recursion (the ping-pong), so no level has to
+ * copy its halves out before merging them.  Merges themselves are split in two around the median
+ * of the larger run, so the final merges at the top of the tree aren't stuck on one core.
+ *
+ * Subarrays smaller than {@link #SEQUENTIAL_CUTOFF} go through the sequential sort in
+ * {@link PrimitiveSorts}, which isn't worth forking for.
+ *
+ * @author Ryan
+ */
+final class ParallelMergeSort {
+
+	static final int SEQUENTIAL_CUTOFF = 1 << 13;
+
+	private ParallelMergeSort() {
+	}
+
+	static void sort(int[] elements) {
+		if (elements.length < SEQUENTIAL_CUTOFF) {
+			PrimitiveSorts.mergeSort(elements);
+			return;
+		}
+		int buffer[] = new int[elements.length];
+		SortCounters counters = null;
+		if (SortCounters.ENABLED) {
+			counters = SortCounters.current();
+			counters.add(0, 0, (long) Integer.BYTES * buffer.length);
+		}
+		ForkJoinPool.commonPool().invoke(new IntSortTask(elements, buffer, 0, elements.length, false, counters));
+	}
+
+	static void sort(long[] elements) {
+		if (elements.length < SEQUENTIAL_CUTOFF) {
+			PrimitiveSorts.mergeSort(elements);
+			return;
+		}
+		long buffer[] = new long[elements.length];
+		SortCounters counters = null;
+		if (SortCounters.ENABLED) {
+			counters = SortCounters.current();
+			counters.add(0, 0, (long) Long.BYTES * buffer.length);
+		}
+		ForkJoinPool.commonPool().invoke(new LongSortTask(elements, buffer, 0, elements.length, false, counters));
+	}
+
+	/**
+	 * Sorts elements[low, high) and leaves the result in either `elements` or `buffer`, depending
+	 * on `intoBuffer`.  The children are asked for the opposite, so that their results are
+	 * waiting in whichever array this task is *not* merging into
+	 */
+	@SuppressWarnings("serial")
+	private static class IntSortTask extends RecursiveAction {
+
+		private final int[] elements;
+		private final int[] buffer;
+		private final int low;
+		private final int high;
+		private final boolean intoBuffer;
+		private final SortCounters counters;
+
+		IntSortTask(int[] elements, int[] buffer, int low, int high, boolean intoBuffer, SortCounters counters) {
+			this.elements = elements;
+			this.buffer = buffer;
+			this.low = low;
+			this.high = high;
+			this.intoBuffer = intoBuffer;
+			this.counters = counters;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low < SEQUENTIAL_CUTOFF) {
+				SortCounters local = SortCounters.ENABLED ? SortCounters.enterTask(counters) : null;
+				PrimitiveSorts.mergeSort(elements, buffer, low, high - 1);
+				if (intoBuffer) {
+					System.arraycopy(elements, low, buffer, low, high - low);
+				}
+				if (SortCounters.ENABLED) {
+					local.add(0, intoBuffer ? high - low : 0, 0);
+					SortCounters.exitTask(counters, local);
+				}
+				return;
+			}
+			int middle = (low + high) >>> 1;
+			invokeAll(new IntSortTask(elements, buffer, low, middle, !intoBuffer, counters),
+					new IntSortTask(elements, buffer, middle, high, !intoBuffer, counters));
+
+			int source[] = intoBuffer ? elements : buffer;
+			int destination[] = intoBuffer ? buffer : elements;
+			new IntMergeTask(source, low, middle, middle, high, destination, low, counters).compute();
+		}
+	}
+
+	/**
+	 * Merges source[leftLow, leftHigh) and source[rightLow, rightHigh) into destination starting
+	 * at `destinationLow`.
+	 *
+	 * Large merges take the middle element of the longer run, binary search for where it lands in
+	 * the shorter run, drop it straight into its final slot, and merge what's left on either side
+	 * of it as two independent tasks.
+	 */
+	@SuppressWarnings("serial")
+	private static class IntMergeTask extends RecursiveAction {
+
+		private final int[] source;
+		private final int leftLow;
+		private final int leftHigh;
+		private final int rightLow;
+		private final int rightHigh;
+		private final int[] destination;
+		private final int destinationLow;
+		private final SortCounters counters;
+
+		IntMergeTask(int[] source, int leftLow, int leftHigh, int rightLow, int rightHigh, int[] destination,
+				int destinationLow, SortCounters counters) {
+			this.source = source;
+			this.leftLow = leftLow;
+			this.leftHigh = leftHigh;
+			this.rightLow = rightLow;
+			this.rightHigh = rightHigh;
+			this.destination = destination;
+			this.destinationLow = destinationLow;
+			this.counters = counters;
+		}
+
+		@Override
+		protected void compute() {
+			int leftLength = leftHigh - leftLow;
+			int rightLength = rightHigh - rightLow;
+			if (leftLength + rightLength < SEQUENTIAL_CUTOFF) {
+				mergeSequential();
+				return;
+			}
+			if (leftLength < rightLength) {
+				int rightMiddle = (rightLow + rightHigh) >>> 1;
+				int leftSplit = lowerBound(source, leftLow, leftHigh, source[rightMiddle]);
+				int slot = destinationLow + (leftSplit - leftLow) + (rightMiddle - rightLow);
+				destination[slot] = source[rightMiddle];
+				invokeAll(new IntMergeTask(source, leftLow, leftSplit, rightLow, rightMiddle, destination,
+						destinationLow, counters),
+						new IntMergeTask(source, leftSplit, leftHigh, rightMiddle + 1, rightHigh, destination,
+								slot + 1, counters));
+			} else {
+				int leftMiddle = (leftLow + leftHigh) >>> 1;
+				int rightSplit = lowerBound(source, rightLow, rightHigh, source[leftMiddle]);
+				int slot = destinationLow + (leftMiddle - leftLow) + (rightSplit - rightLow);
+				destination[slot] = source[leftMiddle];
+				invokeAll(new IntMergeTask(source, leftLow, leftMiddle, rightLow, rightSplit, destination,
+						destinationLow, counters),
+						new IntMergeTask(source, leftMiddle + 1, leftHigh, rightSplit, rightHigh, destination,
+								slot + 1, counters));
+			}
+		}
+
+		private void mergeSequential() {
+			int leftIndex = leftLow;
+			int rightIndex = rightLow;
+			int k = destinationLow;
+			while (leftIndex < leftHigh && rightIndex < rightHigh) {
+				destination[k++] = source[rightIndex] < source[leftIndex] ? source[rightIndex++] : source[leftIndex++];
+			}
+			if (SortCounters.ENABLED) {
+				counters.add(k - destinationLow, leftHigh - leftLow + rightHigh - rightLow, 0);
+			}
+			System.arraycopy(source, leftIndex, destination, k, leftHigh - leftIndex);
+			k += leftHigh - leftIndex;
+			System.arraycopy(source, rightIndex, destination, k, rightHigh - rightIndex);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class LongSortTask extends RecursiveAction {
+
+		private final long[] elements;
+		private final long[] buffer;
+		private final int low;
+		private final int high;
+		private final boolean intoBuffer;
+		private final SortCounters counters;
+
+		LongSortTask(long[] elements, long[] buffer, int low, int high, boolean intoBuffer, SortCounters counters) {
+			this.elements = elements;
+			this.buffer = buffer;
+			this.low = low;
+			this.high = high;
+			this.intoBuffer = intoBuffer;
+			this.counters = counters;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low < SEQUENTIAL_CUTOFF) {
+				SortCounters local = SortCounters.ENABLED ? SortCounters.enterTask(counters) : null;
+				PrimitiveSorts.mergeSort(elements, buffer, low, high - 1);
+				if (intoBuffer) {
+					System.arraycopy(elements, low, buffer, low, high - low);
+				}
+				if (SortCounters.ENABLED) {
+					local.add(0, intoBuffer ? high - low : 0, 0);
+					SortCounters.exitTask(counters, local);
+				}
+				return;
+			}
+			int middle = (low + high) >>> 1;
+			invokeAll(new LongSortTask(elements, buffer, low, middle, !intoBuffer, counters),
+					new LongSortTask(elements, buffer, middle, high, !intoBuffer, counters));
+
+			long source[] = intoBuffer ? elements : buffer;
+			long destination[] = intoBuffer ? buffer : elements;
+			new LongMergeTask(source, low, middle, middle, high, destination, low, counters).compute();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class LongMergeTask extends RecursiveAction {
+
+		private final long[] source;
+		private final int leftLow;
+		private final int leftHigh;
+		private final int rightLow;
+		private final int rightHigh;
+		private final long[] destination;
+		private final int destinationLow;
+		private final SortCounters counters;
+
+		LongMergeTask(long[] source, int leftLow, int leftHigh, int rightLow, int rightHigh, long[] destination,
+				int destinationLow, SortCounters counters) {
+			this.source = source;
+			this.leftLow = leftLow;
+			this.leftHigh = leftHigh;
+			this.rightLow = rightLow;
+			this.rightHigh = rightHigh;
+			this.destination = destination;
+			this.destinationLow = destinationLow;
+			this.counters = counters;
+		}
+
+		@Override
+		protected void compute() {
+			int leftLength = leftHigh - leftLow;
+			int rightLength = rightHigh - rightLow;
+			if (leftLength + rightLength < SEQUENTIAL_CUTOFF) {
+				mergeSequential();
+				return;
+			}
+			if (leftLength < rightLength) {
+				int rightMiddle = (rightLow + rightHigh) >>> 1;
+				int leftSplit = lowerBound(source, leftLow, leftHigh, source[rightMiddle]);
+				int slot = destinationLow + (leftSplit - leftLow) + (rightMiddle - rightLow);
+				destination[slot] = source[rightMiddle];
+				invokeAll(new LongMergeTask(source, leftLow, leftSplit, rightLow, rightMiddle, destination,
+						destinationLow, counters),
+						new LongMergeTask(source, leftSplit, leftHigh, rightMiddle + 1, rightHigh, destination,
+								slot + 1, counters));
+			} else {
+				int leftMiddle = (leftLow + leftHigh) >>> 1;
+				int rightSplit = lowerBound(source, rightLow, rightHigh, source[leftMiddle]);
+				int slot = destinationLow + (leftMiddle - leftLow) + (rightSplit - rightLow);
+				destination[slot] = source[leftMiddle];
+				invokeAll(new LongMergeTask(source, leftLow, leftMiddle, rightLow, rightSplit, destination,
+						destinationLow, counters),
+						new LongMergeTask(source, leftMiddle + 1, leftHigh, rightSplit, rightHigh, destination,
+								slot + 1, counters));
+			}
+		}
+
+		private void mergeSequential() {
+			int leftIndex = leftLow;
+			int rightIndex = rightLow;
+			int k = destinationLow;
+			while (leftIndex < leftHigh && rightIndex < rightHigh) {
+				destination[k++] = source[rightIndex] < source[leftIndex] ? source[rightIndex++] : source[leftIndex++];
+			}
+			if (SortCounters.ENABLED) {
+				counters.add(k - destinationLow, leftHigh - leftLow + rightHigh - rightLow, 0);
+			}
+			System.arraycopy(source, leftIndex, destination, k, leftHigh - leftIndex);
+			k += leftHigh - leftIndex;
+			System.arraycopy(source, rightIndex, destination, k, rightHigh - rightIndex);
+		}
+	}
+
+	/**
+	 * @return the first index in [low, high) whose element is not less than `key`
+	 */
+	private static int lowerBound(int[] sorted, int low, int high, int key) {
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] < key) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static int lowerBound(long[] sorted, int low, int high, long key) {
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] < key) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+}
@@ -0,0 +1,167 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.ryebread.algorithmplayground.utils.ArrayUtilities;
+
+/**
+ * Fork/join version of {@link SortServiceImpl#threeWayRadixQuickSort}.
+ *
+ * Once a subarray is partitioned, its less-than and greater-than partitions don't share anything, so
+ * both are forked as their own tasks.  The equal partition moves on to the next character and is
+ * worked on by the current thread while the other two run.  Subarrays below {@link #PARALLEL_CUTOFF}
+ * are sorted sequentially.
+ *
+ * The anchor character is the median of the first, middle and last strings' characters, rather than
+ * always the first string's, so already sorted or reversed input doesn't degrade every partition.
+ *
+ * @author Ryan
+ */
+final class ParallelThreeWayRadixQuickSort {
+
+	static final int PARALLEL_CUTOFF = 1 << 13;
+
+	private ParallelThreeWayRadixQuickSort() {
+	}
+
+	static void sort(String[] strings) {
+		SortCounters counters = SortCounters.ENABLED ? SortCounters.current() : null;
+		ForkJoinPool.commonPool().invoke(new QuickSortTask(strings, 0, strings.length - 1, 0, counters));
+	}
+
+	@SuppressWarnings("serial")
+	private static class QuickSortTask extends RecursiveAction {
+
+		private final String[] strings;
+		private final int low;
+		private final int high;
+		private final int charPosition;
+		private final SortCounters counters;
+
+		QuickSortTask(String[] strings, int low, int high, int charPosition, SortCounters counters) {
+			this.strings = strings;
+			this.low = low;
+			this.high = high;
+			this.charPosition = charPosition;
+			this.counters = counters;
+		}
+
+		@Override
+		protected void compute() {
+			SortCounters local = SortCounters.ENABLED ? SortCounters.enterTask(counters) : null;
+			if (high - low < PARALLEL_CUTOFF) {
+				sequentialSort(strings, low, high, charPosition, new int[2]);
+				if (SortCounters.ENABLED) {
+					SortCounters.exitTask(counters, local);
+				}
+				return;
+			}
+
+			int bounds[] = new int[2];
+			int anchorChar = partition(strings, low, high, charPosition, bounds);
+			int lessThan = bounds[0];
+			int greaterThan = bounds[1];
+			if (SortCounters.ENABLED) {
+				SortCounters.exitTask(counters, local);
+			}
+
+			QuickSortTask less = new QuickSortTask(strings, low, lessThan - 1, charPosition, counters);
+			QuickSortTask greater = new QuickSortTask(strings, greaterThan + 1, high, charPosition, counters);
+			less.fork();
+			greater.fork();
+			if (anchorChar >= 0) {
+				new QuickSortTask(strings, lessThan, greaterThan, charPosition + 1, counters).compute();
+			}
+			less.join();
+			greater.join();
+		}
+	}
+
+	/**
+	 * @param bounds - scratch space, reused down the recursion since each level is done with it once
+	 *                 it has read off its own partition bounds
+	 */
+	private static void sequentialSort(String[] strings, int low, int high, int charPosition, int[] bounds) {
+		if (high <= low) {
+			return;
+		}
+		int anchorChar = partition(strings, low, high, charPosition, bounds);
+		int lessThan = bounds[0];
+		int greaterThan = bounds[1];
+
+		sequentialSort(strings, low, lessThan - 1, charPosition, bounds);
+		if (anchorChar >= 0) {
+			sequentialSort(strings, lessThan, greaterThan, charPosition + 1, bounds);
+		}
+		sequentialSort(strings, greaterThan + 1, high, charPosition, bounds);
+	}
+
+	/**
+	 * Three-way partition strings[low, high] on the character at `charPosition`, the same loop as
+	 * SortServiceImpl.threeWayQuickSort.  The equal partition's bounds are written to `bounds`
+	 * @return the anchor character
+	 */
+	private static int partition(String[] strings, int low, int high, int charPosition, int[] bounds) {
+		ArrayUtilities.swap(strings, low, medianOfThree(strings, low, (low + high) >>> 1, high, charPosition));
+
+		int lessThan = low;
+		int greaterThan = high;
+		int anchorChar = charAt(strings[low], charPosition);
+		int i = low + 1;
+		long comparisons = 0;
+		long moves = 2;
+		while (i <= greaterThan) {
+			int comparisonChar = charAt(strings[i], charPosition);
+			if (comparisonChar < anchorChar) {
+				ArrayUtilities.swap(strings, lessThan++, i++);
+				if (SortCounters.ENABLED) {
+					comparisons++;
+					moves += 2;
+				}
+			} else if (anchorChar < comparisonChar) {
+				ArrayUtilities.swap(strings, i, greaterThan--);
+				if (SortCounters.ENABLED) {
+					comparisons += 2;
+					moves += 2;
+				}
+			} else {
+				i++;
+				if (SortCounters.ENABLED) {
+					comparisons += 2;
+				}
+			}
+		}
+		if (SortCounters.ENABLED) {
+			// The swap of the median into place counts as well
+			SortCounters.record(comparisons, moves);
+		}
+		bounds[0] = lessThan;
+		bounds[1] = greaterThan;
+		return anchorChar;
+	}
+
+	/**
+	 * @return whichever of indices a, b and c has the median character at `charPosition`
+	 */
+	private static int medianOfThree(String[] strings, int a, int b, int c, int charPosition) {
+		int x = charAt(strings[a], charPosition);
+		int y = charAt(strings[b], charPosition);
+		int z = charAt(strings[c], charPosition);
+		if (SortCounters.ENABLED) {
+			SortCounters.record((x < y ? y < z : x < z) ? 2 : 3, 0);
+		}
+		if (x < y) {
+			return y < z ? b : (x < z ? c : a);
+		}
+		return x < z ? a : (y < z ? c : b);
+	}
+
+	private static int charAt(String str, int pos) {
+		if (pos < str.length()) {
+			return str.charAt(pos);
+		}
+		return -1;
+	}
+
+}
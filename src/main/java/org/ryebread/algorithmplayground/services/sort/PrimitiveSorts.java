@@ -0,0 +1,365 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import org.ryebread.algorithmplayground.utils.ArrayUtilities;
+
+/**
+ * In-place numeric sorts over primitive arrays.
+ *
+ * The boxed versions of these sorts in {@link SortServiceImpl} need to record every step for the
+ * front-end, but when all that's wanted is the sorted array, there's no reason to pay for an
+ * Integer object (and the unboxing on every compare) per element.  The int and long versions are
+ * identical apart from the element type.
+ *
+ * @author Ryan
+ */
+final class PrimitiveSorts {
+
+	/*
+	 * Below this many elements, merge sort hands its subarray off to insertion sort
+	 */
+	private static final int INSERTION_CUTOFF = 16;
+
+	private PrimitiveSorts() {
+	}
+
+	static void sort(int[] elements, SortAlgorithm algorithm) {
+		switch (algorithm) {
+		case INSERTION:
+			insertionSort(elements, 0, elements.length - 1);
+			break;
+		case MERGE:
+			mergeSort(elements);
+			break;
+		case HEAP:
+			heapSort(elements);
+			break;
+		case PARALLEL_MERGE:
+			ParallelMergeSort.sort(elements);
+			break;
+		case RADIX:
+			IntegerLsdRadixSort.sort(elements);
+			break;
+		case NATURAL_MERGE:
+			NaturalMergeSort.sort(elements);
+			break;
+		case INTRO:
+			IntroSort.sort(elements);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+		}
+	}
+
+	static void sort(long[] elements, SortAlgorithm algorithm) {
+		switch (algorithm) {
+		case INSERTION:
+			insertionSort(elements, 0, elements.length - 1);
+			break;
+		case MERGE:
+			mergeSort(elements);
+			break;
+		case HEAP:
+			heapSort(elements);
+			break;
+		case PARALLEL_MERGE:
+			ParallelMergeSort.sort(elements);
+			break;
+		case RADIX:
+			IntegerLsdRadixSort.sort(elements);
+			break;
+		case NATURAL_MERGE:
+			NaturalMergeSort.sort(elements);
+			break;
+		case INTRO:
+			IntroSort.sort(elements);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+		}
+	}
+
+	/**
+	 * Insertion sort the inclusive range [low, high].  Rather than swapping the current element
+	 * down one slot at a time, larger elements are shifted up and the current element is written
+	 * once into the gap
+	 */
+	static void insertionSort(int[] elements, int low, int high) {
+		long comparisons = 0;
+		long moves = 0;
+		for (int i = low + 1; i <= high; i++) {
+			int current = elements[i];
+			int j = i - 1;
+			for (; j >= low && elements[j] > current; j--) {
+				elements[j + 1] = elements[j];
+			}
+			elements[j + 1] = current;
+			if (SortCounters.ENABLED) {
+				// Every element shifted was compared, plus the one that stopped the shifting, if any
+				comparisons += (i - 1 - j) + (j >= low ? 1 : 0);
+				moves += i - j;
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+		}
+	}
+
+	static void insertionSort(long[] elements, int low, int high) {
+		long comparisons = 0;
+		long moves = 0;
+		for (int i = low + 1; i <= high; i++) {
+			long current = elements[i];
+			int j = i - 1;
+			for (; j >= low && elements[j] > current; j--) {
+				elements[j + 1] = elements[j];
+			}
+			elements[j + 1] = current;
+			if (SortCounters.ENABLED) {
+				comparisons += (i - 1 - j) + (j >= low ? 1 : 0);
+				moves += i - j;
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+		}
+	}
+
+	/**
+	 * Top-down merge sort that allocates a single auxiliary array up front instead of a new
+	 * left/right pair on every merge
+	 */
+	static void mergeSort(int[] elements) {
+		int aux[] = new int[elements.length];
+		if (SortCounters.ENABLED) {
+			SortCounters.recordAllocation((long) Integer.BYTES * aux.length);
+		}
+		mergeSort(elements, aux, 0, elements.length - 1);
+	}
+
+	static void mergeSort(long[] elements) {
+		long aux[] = new long[elements.length];
+		if (SortCounters.ENABLED) {
+			SortCounters.recordAllocation((long) Long.BYTES * aux.length);
+		}
+		mergeSort(elements, aux, 0, elements.length - 1);
+	}
+
+	static void mergeSort(int[] elements, int[] aux, int low, int high) {
+		if (high - low < INSERTION_CUTOFF) {
+			insertionSort(elements, low, high);
+			return;
+		}
+		int middle = (low + high) >>> 1;
+		mergeSort(elements, aux, low, middle);
+		mergeSort(elements, aux, middle + 1, high);
+
+		if (SortCounters.ENABLED) {
+			SortCounters.record(1, 0);
+		}
+		// The two halves are already in order relative to each other, nothing to merge
+		if (elements[middle] <= elements[middle + 1]) {
+			return;
+		}
+		merge(elements, aux, low, middle, high);
+	}
+
+	static void mergeSort(long[] elements, long[] aux, int low, int high) {
+		if (high - low < INSERTION_CUTOFF) {
+			insertionSort(elements, low, high);
+			return;
+		}
+		int middle = (low + high) >>> 1;
+		mergeSort(elements, aux, low, middle);
+		mergeSort(elements, aux, middle + 1, high);
+
+		if (SortCounters.ENABLED) {
+			SortCounters.record(1, 0);
+		}
+		if (elements[middle] <= elements[middle + 1]) {
+			return;
+		}
+		merge(elements, aux, low, middle, high);
+	}
+
+	/**
+	 * Merge the sorted ranges [low, middle] and [middle + 1, high] of `elements`, using `aux`
+	 * as scratch space for the same indices
+	 */
+	static void merge(int[] elements, int[] aux, int low, int middle, int high) {
+		System.arraycopy(elements, low, aux, low, high - low + 1);
+		int leftIndex = low;
+		int rightIndex = middle + 1;
+		long comparisons = 0;
+		for (int k = low; k <= high; k++) {
+			if (leftIndex > middle) {
+				elements[k] = aux[rightIndex++];
+			} else if (rightIndex > high) {
+				elements[k] = aux[leftIndex++];
+			} else {
+				if (SortCounters.ENABLED) {
+					comparisons++;
+				}
+				elements[k] = aux[rightIndex] < aux[leftIndex] ? aux[rightIndex++] : aux[leftIndex++];
+			}
+		}
+		if (SortCounters.ENABLED) {
+			// Every element is copied out to aux and back again
+			SortCounters.record(comparisons, 2L * (high - low + 1));
+		}
+	}
+
+	static void merge(long[] elements, long[] aux, int low, int middle, int high) {
+		System.arraycopy(elements, low, aux, low, high - low + 1);
+		int leftIndex = low;
+		int rightIndex = middle + 1;
+		long comparisons = 0;
+		for (int k = low; k <= high; k++) {
+			if (leftIndex > middle) {
+				elements[k] = aux[rightIndex++];
+			} else if (rightIndex > high) {
+				elements[k] = aux[leftIndex++];
+			} else {
+				if (SortCounters.ENABLED) {
+					comparisons++;
+				}
+				elements[k] = aux[rightIndex] < aux[leftIndex] ? aux[rightIndex++] : aux[leftIndex++];
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, 2L * (high - low + 1));
+		}
+	}
+
+	/**
+	 * In-place heap sort: build a max-heap over the array, then repeatedly swap the root to the
+	 * end of the shrinking heap
+	 */
+	static void heapSort(int[] elements) {
+		heapSort(elements, 0, elements.length - 1);
+	}
+
+	/**
+	 * Heap sort the inclusive range [low, high], treating `low` as the root of the heap
+	 */
+	static void heapSort(int[] elements, int low, int high) {
+		int heapSize = high - low + 1;
+		for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+			siftDown(elements, low, i, heapSize);
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, 2L * Math.max(0, heapSize - 1));
+		}
+		while (heapSize > 1) {
+			ArrayUtilities.swap(elements, low, low + --heapSize);
+			siftDown(elements, low, 0, heapSize);
+		}
+	}
+
+	static void heapSort(long[] elements) {
+		heapSort(elements, 0, elements.length - 1);
+	}
+
+	static void heapSort(long[] elements, int low, int high) {
+		int heapSize = high - low + 1;
+		for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+			siftDown(elements, low, i, heapSize);
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, 2L * Math.max(0, heapSize - 1));
+		}
+		while (heapSize > 1) {
+			ArrayUtilities.swap(elements, low, low + --heapSize);
+			siftDown(elements, low, 0, heapSize);
+		}
+	}
+
+	/**
+	 * Iterative max-heap sift down, over a heap whose root is at `offset`.  The element at `index` is
+	 * held aside and larger children are moved up until its slot is found
+	 */
+	private static void siftDown(int[] tree, int offset, int index, int heapSize) {
+		int element = tree[offset + index];
+		long comparisons = 0;
+		long moves = 1;
+		int child;
+		while ((child = (index << 1) + 1) < heapSize) {
+			if (SortCounters.ENABLED) {
+				comparisons += child + 1 < heapSize ? 2 : 1;
+			}
+			if (child + 1 < heapSize && tree[offset + child + 1] > tree[offset + child]) {
+				child++;
+			}
+			if (tree[offset + child] <= element) {
+				break;
+			}
+			tree[offset + index] = tree[offset + child];
+			index = child;
+			if (SortCounters.ENABLED) {
+				moves++;
+			}
+		}
+		tree[offset + index] = element;
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+		}
+	}
+
+	private static void siftDown(long[] tree, int offset, int index, int heapSize) {
+		long element = tree[offset + index];
+		long comparisons = 0;
+		long moves = 1;
+		int child;
+		while ((child = (index << 1) + 1) < heapSize) {
+			if (SortCounters.ENABLED) {
+				comparisons += child + 1 < heapSize ? 2 : 1;
+			}
+			if (child + 1 < heapSize && tree[offset + child + 1] > tree[offset + child]) {
+				child++;
+			}
+			if (tree[offset + child] <= element) {
+				break;
+			}
+			tree[offset + index] = tree[offset + child];
+			index = child;
+			if (SortCounters.ENABLED) {
+				moves++;
+			}
+		}
+		tree[offset + index] = element;
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+		}
+	}
+
+	/**
+	 * Min-heap sift down matching {@link org.ryebread.algorithmplayground.structures.heap.MinHeap},
+	 * used to reproduce the heap snapshots of the heap sort visualization on a primitive array
+	 */
+	static void minHeapify(int[] tree, int index, int heapSize) {
+		int element = tree[index];
+		long comparisons = 0;
+		long moves = 1;
+		int child;
+		while ((child = (index << 1) + 1) < heapSize) {
+			if (SortCounters.ENABLED) {
+				comparisons += child + 1 < heapSize ? 2 : 1;
+			}
+			if (child + 1 < heapSize && tree[child + 1] < tree[child]) {
+				child++;
+			}
+			if (tree[child] >= element) {
+				break;
+			}
+			tree[index] = tree[child];
+			index = child;
+			if (SortCounters.ENABLED) {
+				moves++;
+			}
+		}
+		tree[index] = element;
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+		}
+	}
+
+}
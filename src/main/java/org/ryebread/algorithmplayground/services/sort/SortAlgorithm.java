@@ -0,0 +1,9 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+/**
+ * The numeric sorts that can be run against primitive arrays
+ * through {@link SortService#sort(int[], SortAlgorithm)}
+ */
+public enum SortAlgorithm {
+	INSERTION, MERGE, HEAP, PARALLEL_MERGE, RADIX, NATURAL_MERGE, INTRO
+}
@@ -0,0 +1,95 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+/**
+ * Comparison, move and allocation counts for the sorts run on the current thread.
+ *
+ * Counting is switched on for the whole JVM with -Dsort.instrumentation=true.  {@link #ENABLED} is a
+ * static final, so when it's off the JIT treats every `if (SortCounters.ENABLED)` block as dead code
+ * and the sorts compile exactly as if the counting wasn't there.
+ *
+ * The sorts keep their counts in local variables and report them once per call, rather than touching
+ * a shared object on every comparison:
+ *
+ * - comparisons: element against element (the radix sorts make none).  For the string sorts, a
+ *   character of one string against a character of another, or against a partition's anchor character
+ * - moves: element writes, whether into the array or an auxiliary one.  A swap is two
+ * - auxBytes: auxiliary arrays allocated, including the copies the traced sorts hand back.  Arrays of
+ *   strings are counted at {@link #REFERENCE_BYTES} a slot
+ *
+ * Fork/join tasks run on worker threads with counters of their own, so a task hands what it counted
+ * over to the counters of the thread that started the sort, through {@link #enterTask} and
+ * {@link #exitTask}.
+ *
+ * @author Ryan
+ */
+final class SortCounters {
+
+	static final boolean ENABLED = Boolean.getBoolean("sort.instrumentation");
+
+	/*
+	 * The size of a reference with compressed oops, which every heap under 32 GB gets by default
+	 */
+	static final int REFERENCE_BYTES = 4;
+
+	private static final ThreadLocal<SortCounters> CURRENT = ThreadLocal.withInitial(SortCounters::new);
+
+	private long comparisons;
+	private long moves;
+	private long auxBytes;
+
+	static SortCounters current() {
+		return CURRENT.get();
+	}
+
+	static void record(long comparisons, long moves) {
+		CURRENT.get().add(comparisons, moves, 0);
+	}
+
+	static void recordAllocation(long bytes) {
+		CURRENT.get().add(0, 0, bytes);
+	}
+
+	/**
+	 * @param root - the counters of the thread that started the sort
+	 * @return the current thread's counters, cleared if they aren't `root`
+	 */
+	static SortCounters enterTask(SortCounters root) {
+		SortCounters local = CURRENT.get();
+		if (local != root) {
+			local.reset();
+		}
+		return local;
+	}
+
+	static void exitTask(SortCounters root, SortCounters local) {
+		if (local != root) {
+			root.add(local.comparisons, local.moves, local.auxBytes);
+			local.reset();
+		}
+	}
+
+	synchronized void add(long comparisons, long moves, long auxBytes) {
+		this.comparisons += comparisons;
+		this.moves += moves;
+		this.auxBytes += auxBytes;
+	}
+
+	synchronized void reset() {
+		comparisons = 0;
+		moves = 0;
+		auxBytes = 0;
+	}
+
+	synchronized long getComparisons() {
+		return comparisons;
+	}
+
+	synchronized long getMoves() {
+		return moves;
+	}
+
+	synchronized long getAuxBytes() {
+		return auxBytes;
+	}
+
+}
@@ -0,0 +1,94 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ryebread.algorithmplayground.models.sort.SortMetrics;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times sorts and publishes what they cost as Micrometer meters, tagged with the algorithm and the
+ * order of magnitude of the input size:
+ *
+ * - sort.duration: wall time
+ * - sort.comparisons, sort.moves, sort.aux.bytes: per sort, see {@link SortCounters}.  Only published
+ *   when counting is switched on with -Dsort.instrumentation=true
+ *
+ * Nothing here runs unless a caller asks for it -- sorts that aren't measured don't pay for the clock
+ * or the meters either.
+ *
+ * @author Ryan
+ */
+@Service
+public class SortInstrumentation {
+
+	private static final int SIZE_BUCKETS[] = { 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+			100_000_000 };
+	private static final String SIZE_BUCKET_NAMES[] = { "<=10", "<=100", "<=1k", "<=10k", "<=100k", "<=1M",
+			"<=10M", "<=100M" };
+
+	private final MeterRegistry meterRegistry;
+
+	public SortInstrumentation(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * @return true if every sort is counted, in which case every sort should be measured too
+	 */
+	public boolean isCounting() {
+		return SortCounters.ENABLED;
+	}
+
+	public SortMetrics measure(String algorithm, int size, Runnable sort) {
+		SortCounters counters = SortCounters.ENABLED ? SortCounters.current() : null;
+		if (SortCounters.ENABLED) {
+			counters.reset();
+		}
+		long start = System.nanoTime();
+		sort.run();
+		long nanos = System.nanoTime() - start;
+
+		SortMetrics metrics = new SortMetrics();
+		metrics.setAlgorithm(algorithm);
+		metrics.setSize(size);
+		metrics.setNanos(nanos);
+		String sizeBucket = sizeBucket(size);
+		Timer.builder("sort.duration")
+				.tag("algorithm", algorithm)
+				.tag("size", sizeBucket)
+				.register(meterRegistry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+
+		if (SortCounters.ENABLED) {
+			metrics.setComparisons(counters.getComparisons());
+			metrics.setMoves(counters.getMoves());
+			metrics.setAuxBytes(counters.getAuxBytes());
+			summary("sort.comparisons", null, algorithm, sizeBucket).record(metrics.getComparisons());
+			summary("sort.moves", null, algorithm, sizeBucket).record(metrics.getMoves());
+			summary("sort.aux.bytes", "bytes", algorithm, sizeBucket).record(metrics.getAuxBytes());
+		}
+		return metrics;
+	}
+
+	private DistributionSummary summary(String name, String baseUnit, String algorithm, String sizeBucket) {
+		return DistributionSummary.builder(name)
+				.baseUnit(baseUnit)
+				.tag("algorithm", algorithm)
+				.tag("size", sizeBucket)
+				.register(meterRegistry);
+	}
+
+	static String sizeBucket(int size) {
+		for (int i = 0; i < SIZE_BUCKETS.length; i++) {
+			if (size <= SIZE_BUCKETS[i]) {
+				return SIZE_BUCKET_NAMES[i];
+			}
+		}
+		return ">100M";
+	}
+
+}
@@ -0,0 +1,126 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+
+import org.ryebread.algorithmplayground.models.sort.SortJobStatus;
+
+/**
+ * One sort submitted through {@link SortJobService}, sorting its array in place on a worker thread.
+ * Exactly one of {@link #getInts} and {@link #getLongs} is non-null.
+ *
+ * @author Ryan
+ */
+public class SortJob implements Runnable {
+
+	public enum State {
+		QUEUED, RUNNING, DONE, FAILED, CANCELLED
+	}
+
+	private final String id;
+	private final SortAlgorithm algorithm;
+	private final int[] ints;
+	private final long[] longs;
+
+	private volatile State state = State.QUEUED;
+	private volatile int progress;
+	private volatile long nanos;
+	private volatile String error;
+	private volatile Future<?> future;
+
+	SortJob(String id, SortAlgorithm algorithm, int[] ints) {
+		this(id, algorithm, ints, null);
+	}
+
+	SortJob(String id, SortAlgorithm algorithm, long[] longs) {
+		this(id, algorithm, null, longs);
+	}
+
+	private SortJob(String id, SortAlgorithm algorithm, int[] ints, long[] longs) {
+		this.id = id;
+		this.algorithm = algorithm;
+		this.ints = ints;
+		this.longs = longs;
+	}
+
+	@Override
+	public void run() {
+		if (state != State.QUEUED) {
+			return;
+		}
+		state = State.RUNNING;
+		long start = System.nanoTime();
+		try {
+			if (ints != null) {
+				ChunkedSort.sort(ints, algorithm, percent -> progress = percent);
+			} else {
+				ChunkedSort.sort(longs, algorithm, percent -> progress = percent);
+			}
+			nanos = System.nanoTime() - start;
+			state = State.DONE;
+		} catch (CancellationException e) {
+			state = State.CANCELLED;
+		} catch (RuntimeException | Error e) {
+			// Most likely an OutOfMemoryError allocating the merge buffer
+			error = e.toString();
+			state = State.FAILED;
+		}
+	}
+
+	/**
+	 * Stops the job: a queued job never starts, and a running one stops at its next chunk or merge
+	 * step
+	 */
+	void cancel() {
+		if (state == State.QUEUED) {
+			state = State.CANCELLED;
+		}
+		Future<?> submitted = future;
+		if (submitted != null) {
+			submitted.cancel(true);
+		}
+	}
+
+	void setFuture(Future<?> future) {
+		this.future = future;
+	}
+
+	boolean isFinished() {
+		State current = state;
+		return current == State.DONE || current == State.FAILED || current == State.CANCELLED;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return the sorted array, once the job is {@link State#DONE}, if 32 bit elements were submitted
+	 */
+	public int[] getInts() {
+		return ints;
+	}
+
+	public long[] getLongs() {
+		return longs;
+	}
+
+	public SortJobStatus getStatus() {
+		SortJobStatus status = new SortJobStatus();
+		State current = state;
+		status.setId(id);
+		status.setState(current.name());
+		status.setAlgorithm(algorithm.name());
+		status.setSize(ints != null ? ints.length : longs.length);
+		status.setBits(ints != null ? Integer.SIZE : Long.SIZE);
+		status.setProgress(progress);
+		status.setNanos(current == State.DONE ? nanos : null);
+		status.setError(error);
+		return status;
+	}
+
+}
@@ -0,0 +1,137 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs sorts in the background, off the request threads, so a few huge sorts can't tie up the
+ * server's threads while every other endpoint waits.
+ *
+ * Jobs run on a fixed pool of worker threads, one per core unless `sort.jobs.workers` says otherwise,
+ * behind a queue of at most `sort.jobs.queue-capacity` jobs.  Once every worker is busy and the queue
+ * is full, new jobs are rejected rather than left to pile up in memory; {@link #isSaturated} lets a
+ * caller turn them away before reading their input at all.
+ *
+ * Finished jobs keep their sorted arrays until they're removed, or until more than
+ * `sort.jobs.retained` jobs have finished, at which point the oldest are dropped.
+ *
+ * @author Ryan
+ */
+@Service
+public class SortJobService {
+
+	private final ThreadPoolExecutor executor;
+	private final int retainedJobs;
+	private final Map<String, SortJob> jobs = new LinkedHashMap<>();
+
+	public SortJobService(@Value("${sort.jobs.workers:0}") int workers,
+			@Value("${sort.jobs.queue-capacity:8}") int queueCapacity,
+			@Value("${sort.jobs.retained:16}") int retainedJobs) {
+		int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "sort-job-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.retainedJobs = retainedJobs;
+	}
+
+	/**
+	 * Queue `elements` to be sorted in place
+	 * @throws RejectedExecutionException if the queue is full
+	 */
+	public SortJob submit(int[] elements, SortAlgorithm algorithm) {
+		return submit(new SortJob(UUID.randomUUID().toString(), algorithm, elements));
+	}
+
+	public SortJob submit(long[] elements, SortAlgorithm algorithm) {
+		return submit(new SortJob(UUID.randomUUID().toString(), algorithm, elements));
+	}
+
+	/**
+	 * @return true if a job submitted now would most likely be rejected
+	 */
+	public boolean isSaturated() {
+		return executor.getQueue().remainingCapacity() == 0;
+	}
+
+	/**
+	 * @return the job, or null if there's no such job or it has been removed
+	 */
+	public synchronized SortJob get(String id) {
+		return jobs.get(id);
+	}
+
+	/**
+	 * Cancel the job if it hasn't finished, and forget it either way
+	 * @return false if there was no such job
+	 */
+	public boolean remove(String id) {
+		SortJob job;
+		synchronized (this) {
+			job = jobs.remove(id);
+		}
+		if (job == null) {
+			return false;
+		}
+		job.cancel();
+		// A cancelled job still waiting in the queue would otherwise hold its slot until a worker got to it
+		executor.purge();
+		return true;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private SortJob submit(SortJob job) {
+		synchronized (this) {
+			evictFinished();
+			jobs.put(job.getId(), job);
+		}
+		try {
+			job.setFuture(executor.submit(job));
+		} catch (RejectedExecutionException e) {
+			synchronized (this) {
+				jobs.remove(job.getId());
+			}
+			throw e;
+		}
+		return job;
+	}
+
+	/**
+	 * Drop the oldest finished jobs until no more than `retainedJobs` are left
+	 */
+	private void evictFinished() {
+		int finished = 0;
+		for (SortJob job : jobs.values()) {
+			if (job.isFinished()) {
+				finished++;
+			}
+		}
+		Iterator<SortJob> iterator = jobs.values().iterator();
+		while (finished > retainedJobs && iterator.hasNext()) {
+			if (iterator.next().isFinished()) {
+				iterator.remove();
+				finished--;
+			}
+		}
+	}
+
+}
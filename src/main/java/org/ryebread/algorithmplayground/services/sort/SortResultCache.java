@@ -0,0 +1,223 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.ryebread.algorithmplayground.models.sort.ArrayPair;
+import org.ryebread.algorithmplayground.models.sort.HeapSortTrace;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortStats;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortTrace;
+import org.ryebread.algorithmplayground.models.sort.MergeSortView;
+import org.ryebread.algorithmplayground.models.sort.SortCacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Remembers the results of the visualization sorts, keyed by what was asked for and the input it was
+ * asked of, so the front-end sending the same array again doesn't recompute the whole trace.
+ *
+ * Inputs are identified by a 64 bit hash of their contents.  The input itself is kept with the entry
+ * and compared on lookup, so two inputs that happen to share a hash never share a result.
+ *
+ * A single trace can run to megabytes, so the cache is bounded by the (estimated) bytes it holds rather
+ * than by how many entries it holds.  Once over budget, the least recently used entries go first.
+ * Results larger than the whole budget are returned without being cached.
+ *
+ * @author Ryan
+ */
+@Service
+public class SortResultCache {
+
+	/*
+	 * Rough cost of an object header plus a reference to it, and of an array header
+	 */
+	private static final long OBJECT_OVERHEAD = 16;
+	private static final long ARRAY_OVERHEAD = 16;
+
+	private final long maxBytes;
+	private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public SortResultCache(@Value("${sort.cache.max-bytes:67108864}") long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Look up the result of running `algorithm` over `input`, computing and caching it on a miss.
+	 *
+	 * `input` is copied into the key before `compute` runs, so it's fine for `compute` to sort it in
+	 * place.  Cached results are handed to every caller that asks for them, and must not be modified.
+	 * @param algorithm - anything identifying how the result was computed, parameters included
+	 * @param input
+	 * @param compute - produces the result on a miss
+	 * @param weigher - estimates the result's size in bytes
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(String algorithm, int[] input, Supplier<V> compute, ToLongFunction<V> weigher) {
+		CacheKey key = new CacheKey(algorithm, input.clone());
+		synchronized (this) {
+			CacheEntry entry = entries.get(key);
+			if (entry != null) {
+				hits++;
+				return (V) entry.value;
+			}
+			misses++;
+		}
+
+		/*
+		 * Computed outside the lock, so one slow sort doesn't hold up every other request.  Two misses on
+		 * the same input at the same time will both compute it, and the second one wins.
+		 */
+		V value = compute.get();
+		long size = key.size() + weigher.applyAsLong(value);
+		if (size > maxBytes) {
+			return value;
+		}
+
+		synchronized (this) {
+			CacheEntry previous = entries.put(key, new CacheEntry(value, size));
+			if (previous != null) {
+				bytes -= previous.size;
+			}
+			bytes += size;
+			Iterator<CacheEntry> eldest = entries.values().iterator();
+			while (bytes > maxBytes && eldest.hasNext()) {
+				bytes -= eldest.next().size;
+				eldest.remove();
+				evictions++;
+			}
+		}
+		return value;
+	}
+
+	public synchronized SortCacheStats getStats() {
+		SortCacheStats stats = new SortCacheStats();
+		stats.setHits(hits);
+		stats.setMisses(misses);
+		stats.setEvictions(evictions);
+		stats.setEntries(entries.size());
+		stats.setBytes(bytes);
+		stats.setMaxBytes(maxBytes);
+		return stats;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	public static long sizeOf(int[] array) {
+		return array == null ? 0 : ARRAY_OVERHEAD + (long) Integer.BYTES * array.length;
+	}
+
+	public static long sizeOf(int[][] arrays) {
+		long size = ARRAY_OVERHEAD;
+		for (int array[] : arrays) {
+			size += sizeOf(array);
+		}
+		return size;
+	}
+
+	public static long sizeOf(List<InsertionSortStats> statsList) {
+		long size = OBJECT_OVERHEAD;
+		for (InsertionSortStats stats : statsList) {
+			size += 2 * OBJECT_OVERHEAD + sizeOf(stats.getSequence());
+		}
+		return size;
+	}
+
+	public static long sizeOf(MergeSortView view) {
+		long size = OBJECT_OVERHEAD + sizeOf(view.getRunStarts());
+		for (List<ArrayPair> pairList : view.getPairLists()) {
+			size += OBJECT_OVERHEAD;
+			for (ArrayPair pair : pairList) {
+				size += OBJECT_OVERHEAD + sizeOf(pair.getLeft()) + sizeOf(pair.getRight());
+			}
+		}
+		return size;
+	}
+
+	public static long sizeOf(InsertionSortTrace trace) {
+		long size = OBJECT_OVERHEAD + sizeOf(trace.getFocusIndices());
+		for (int keyframe[] : trace.getKeyframes()) {
+			size += sizeOf(keyframe);
+		}
+		return size;
+	}
+
+	public static long sizeOf(HeapSortTrace trace) {
+		long size = OBJECT_OVERHEAD + sizeOf(trace.getInitialTree()) + sizeOf(trace.getEvents())
+				+ sizeOf(trace.getSnapshotOffsets());
+		for (int snapshot[] : trace.getSnapshots()) {
+			size += sizeOf(snapshot);
+		}
+		return size;
+	}
+
+	private static class CacheEntry {
+
+		private final Object value;
+		private final long size;
+
+		CacheEntry(Object value, long size) {
+			this.value = value;
+			this.size = size;
+		}
+	}
+
+	private static class CacheKey {
+
+		private final String algorithm;
+		private final int[] input;
+		private final long hash;
+
+		CacheKey(String algorithm, int[] input) {
+			this.algorithm = algorithm;
+			this.input = input;
+			this.hash = hash(input);
+		}
+
+		long size() {
+			return OBJECT_OVERHEAD + 2L * algorithm.length() + sizeOf(input);
+		}
+
+		/**
+		 * Multiply-xorshift over every element.  Nowhere near cryptographic, but it touches each int
+		 * once and spreads small differences across all 64 bits
+		 */
+		private static long hash(int[] input) {
+			long h = 0x9E3779B97F4A7C15L ^ input.length;
+			for (int element : input) {
+				h = (h ^ element) * 0xBF58476D1CE4E5B9L;
+				h ^= h >>> 31;
+			}
+			h ^= h >>> 29;
+			h *= 0x94D049BB133111EBL;
+			return h ^ (h >>> 32);
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (hash ^ (hash >>> 32)) * 31 + algorithm.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof CacheKey))
+				return false;
+			CacheKey other = (CacheKey) obj;
+			return hash == other.hash && algorithm.equals(other.algorithm) && Arrays.equals(input, other.input);
+		}
+	}
+
+}
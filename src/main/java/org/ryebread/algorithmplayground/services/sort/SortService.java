@@ -1,22 +1,78 @@
 package org.ryebread.algorithmplayground.services.sort;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
+import org.ryebread.algorithmplayground.models.sort.HeapSortTrace;
 import org.ryebread.algorithmplayground.models.sort.InsertionSortStats;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortTrace;
 import org.ryebread.algorithmplayground.models.sort.MergeSortView;
 
 public interface SortService {
 
 	public List<InsertionSortStats> insertionSort(Integer elements[]);
 
+	public List<InsertionSortStats> insertionSort(int elements[]);
+
+	public void insertionSort(int elements[], Consumer<InsertionSortStats> statsConsumer);
+
+	public InsertionSortTrace insertionSortTrace(int elements[], int keyframeInterval);
+
 	public MergeSortView mergeSort(Integer elements[]);
 
+	public MergeSortView mergeSort(int elements[]);
+
+	public MergeSortView mergeSort(int elements[], boolean parallel);
+
+	public MergeSortView naturalMergeSort(int elements[]);
+
 	public Integer[][] heapSort(Integer elements[]);
 
+	public int[][] heapSort(int elements[]);
+
+	public void heapSort(int elements[], Consumer<int[]> treeConsumer);
+
+	public HeapSortTrace heapSortTrace(int elements[], int snapshotInterval);
+
+	public void sort(int elements[], SortAlgorithm algorithm);
+
+	public void sort(long elements[], SortAlgorithm algorithm);
+
+	public int[] topK(IntStream elements, int k, boolean largest);
+
+	public int nthElement(int elements[], int n);
+
+	public long nthElement(long elements[], int n);
+
+	public int median(int elements[]);
+
+	public long median(long elements[]);
+
+	public void externalSortLongs(Path input, Path output, long memoryBudget) throws IOException;
+
+	public void externalSortLines(Path input, Path output, long memoryBudget) throws IOException;
+
 	public void lsdRadixSort(String[] strings, int len);
 
+	public void lsdRadixSort(String[] strings, int len, boolean parallel, boolean packKeys);
+
+	public void lsdRadixSort(int[] elements);
+
+	public void lsdRadixSort(long[] elements);
+
 	public void msdRadixSort(String[] strings);
 
+	public void msdRadixSort(String[] strings, int insertionCutoff);
+
+	public void utf16LsdRadixSort(String[] strings, int len);
+
+	public void utf16MsdRadixSort(String[] strings);
+
 	public void threeWayRadixQuickSort(String[] strings);
 
+	public void threeWayRadixQuickSort(String[] strings, boolean parallel);
+
 }
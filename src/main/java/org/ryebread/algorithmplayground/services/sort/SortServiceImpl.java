@@ -1,16 +1,26 @@
 package org.ryebread.algorithmplayground.services.sort;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import org.ryebread.algorithmplayground.models.sort.ArrayPair;
+import org.ryebread.algorithmplayground.models.sort.HeapSortTrace;
 import org.ryebread.algorithmplayground.models.sort.InsertionSortStats;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortTrace;
 import org.ryebread.algorithmplayground.models.sort.MergeSortView;
-import org.ryebread.algorithmplayground.structures.heap.Heap;
-import org.ryebread.algorithmplayground.structures.heap.MinHeap;
 import org.ryebread.algorithmplayground.utils.ArrayUtilities;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,15 +28,58 @@ public class SortServiceImpl implements SortService {
 
 	private static final int RADIX = 256;
 
+	/*
+	 * Below this many elements, a traced parallel merge sort stops forking
+	 */
+	private static final int TRACE_CUTOFF = 1 << 11;
+
+	private final SortInstrumentation sortInstrumentation;
+
+	/**
+	 * A service that never measures its sorts
+	 */
+	public SortServiceImpl() {
+		this(null);
+	}
+
+	/**
+	 * The traced and string sorts are only reached through this service, so when every sort is being
+	 * counted, this is where they're measured
+	 */
+	@Autowired
+	public SortServiceImpl(SortInstrumentation sortInstrumentation) {
+		this.sortInstrumentation = sortInstrumentation;
+	}
+
 	@Override
 	public List<InsertionSortStats> insertionSort(Integer elements[]) {
-		Integer clonedElements[] = elements.clone();
+		return insertionSort(ArrayUtilities.toPrimitive(elements));
+	}
+
+	@Override
+	public List<InsertionSortStats> insertionSort(int elements[]) {
 		List<InsertionSortStats> statsList = new ArrayList<>();
+		insertionSort(elements, statsList::add);
+		return statsList;
+	}
+
+	/**
+	 * Hands each step to `statsConsumer` as soon as it's taken, rather than holding on to all of them
+	 */
+	@Override
+	public void insertionSort(int elements[], Consumer<InsertionSortStats> statsConsumer) {
+		measure("INSERTION_STEPS", elements.length, () -> insertionSteps(elements, statsConsumer));
+	}
+
+	private void insertionSteps(int elements[], Consumer<InsertionSortStats> statsConsumer) {
+		int clonedElements[] = elements.clone();
+		long comparisons = 0;
+		long moves = 0;
 
 		InsertionSortStats stats = new InsertionSortStats();
 		stats.setFocusIndex(0);
 		stats.setSequence(clonedElements.clone());
-		statsList.add(stats);
+		statsConsumer.accept(stats);
 
 		for (int i = 1; i < clonedElements.length; i++) {
 			int currentElement = clonedElements[i];
@@ -34,44 +87,388 @@ public class SortServiceImpl implements SortService {
 			for (; j >= 0 && clonedElements[j] > currentElement; j--) {
 				ArrayUtilities.swap(clonedElements, j, j + 1);
 			}
+			if (SortCounters.ENABLED) {
+				comparisons += (i - 1 - j) + (j >= 0 ? 1 : 0);
+				moves += 2L * (i - 1 - j);
+			}
 			stats = new InsertionSortStats();
 			stats.setFocusIndex(j + 1);
 			stats.setSequence(clonedElements.clone());
-			statsList.add(stats);
+			statsConsumer.accept(stats);
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+			// The working copy, plus one for every step
+			SortCounters.recordAllocation((long) Integer.BYTES * clonedElements.length * (clonedElements.length + 1));
 		}
-		return statsList;
+	}
+
+	/**
+	 * Runs the same passes as {@link #insertionSort(int[])}, but only writes down where each pass moved
+	 * its element, plus a full copy of the sequence every `keyframeInterval` passes.  An interval of 0
+	 * or less falls back to one keyframe every `elements.length` passes (just the starting sequence),
+	 * which keeps the trace linear in the number of passes
+	 */
+	@Override
+	public InsertionSortTrace insertionSortTrace(int elements[], int keyframeInterval) {
+		return measure("INSERTION_TRACE", elements.length, () -> traceInsertionSort(elements, keyframeInterval));
+	}
+
+	private InsertionSortTrace traceInsertionSort(int elements[], int keyframeInterval) {
+		int clonedElements[] = elements.clone();
+		long comparisons = 0;
+		long moves = 0;
+		int steps = Math.max(clonedElements.length, 1);
+		int interval = keyframeInterval > 0 ? keyframeInterval : steps;
+
+		List<int[]> keyframes = new ArrayList<>(steps / interval + 1);
+		int focusIndices[] = new int[steps];
+		keyframes.add(clonedElements.clone());
+
+		for (int i = 1; i < clonedElements.length; i++) {
+			int currentElement = clonedElements[i];
+			int j = i - 1;
+			for (; j >= 0 && clonedElements[j] > currentElement; j--) {
+				clonedElements[j + 1] = clonedElements[j];
+			}
+			clonedElements[j + 1] = currentElement;
+			if (SortCounters.ENABLED) {
+				comparisons += (i - 1 - j) + (j >= 0 ? 1 : 0);
+				moves += i - j;
+			}
+			focusIndices[i] = j + 1;
+			if (i % interval == 0) {
+				keyframes.add(clonedElements.clone());
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+			SortCounters.recordAllocation((long) Integer.BYTES
+					* ((long) clonedElements.length * (keyframes.size() + 1) + steps));
+		}
+
+		InsertionSortTrace trace = new InsertionSortTrace();
+		trace.setKeyframeInterval(interval);
+		trace.setKeyframes(keyframes);
+		trace.setFocusIndices(focusIndices);
+		return trace;
 	}
 
 	@Override
 	public MergeSortView mergeSort(Integer elements[]) {
+		int primitiveElements[] = ArrayUtilities.toPrimitive(elements);
+		MergeSortView view = mergeSort(primitiveElements);
+		// The boxed sort has always left `elements` sorted, so keep doing that
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = primitiveElements[i];
+		}
+		return view;
+	}
+
+	@Override
+	public MergeSortView mergeSort(int elements[]) {
+		return mergeSort(elements, false);
+	}
+
+	/**
+	 * When `parallel` is set, the left and right halves of large subarrays are sorted as separate
+	 * fork/join tasks.  Each task files the pairs it recorded under the lowest index of its subarray,
+	 * so the view comes out in the same left-to-right order the sequential sort produces
+	 */
+	@Override
+	public MergeSortView mergeSort(int elements[], boolean parallel) {
+		return measure(parallel ? "PARALLEL_MERGE_VIEW" : "MERGE_VIEW", elements.length,
+				() -> traceMergeSort(elements, parallel));
+	}
+
+	private MergeSortView traceMergeSort(int elements[], boolean parallel) {
 		int lower = 0;
 		int upper = elements.length - 1;
 		int middle = (int) Math.floor((upper - lower) / 2);
 
 		int size = pairListSize(elements.length);
-		List<List<ArrayPair>> pairLists = new ArrayList<List<ArrayPair>>(size);
-		for (int i = 0; i < size; i++) {
-			pairLists.add(new ArrayList<>());
+		List<List<ArrayPair>> pairLists;
+
+		if (parallel) {
+			List<SortedMap<Integer, List<ArrayPair>>> levels = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				levels.add(new ConcurrentSkipListMap<>());
+			}
+			SortCounters counters = SortCounters.ENABLED ? SortCounters.current() : null;
+			ForkJoinPool.commonPool()
+					.invoke(new TracedMergeTask(levels, elements, lower, middle, upper, 1, counters));
+
+			pairLists = new ArrayList<List<ArrayPair>>(size);
+			for (SortedMap<Integer, List<ArrayPair>> level : levels) {
+				List<ArrayPair> pairList = new ArrayList<>();
+				for (List<ArrayPair> pairs : level.values()) {
+					pairList.addAll(pairs);
+				}
+				pairLists.add(pairList);
+			}
+		} else {
+			pairLists = emptyPairLists(size);
+			merge(pairLists, elements, lower, middle, upper, 1);
 		}
 
-		merge(pairLists, elements, lower, middle, upper, 1);
 		pairLists.get(0).add(new ArrayPair(elements.clone(), null));
+		if (SortCounters.ENABLED) {
+			SortCounters.recordAllocation((long) Integer.BYTES * elements.length);
+		}
 		Collections.reverse(pairLists);
 		MergeSortView view = new MergeSortView();
 		view.setPairLists(pairLists);
 		return view;
 	}
 
+	/**
+	 * Only the runs {@link NaturalMergeSort} finds are recorded, not the binary insertion used to extend
+	 * them.  The runs are merged pairwise, left to right, one level at a time, the same as the untraced
+	 * sort merges them, so the view keeps the same shape as the top-down sort's
+	 */
+	@Override
+	public MergeSortView naturalMergeSort(int elements[]) {
+		return measure("NATURAL_MERGE_VIEW", elements.length, () -> traceNaturalMergeSort(elements));
+	}
+
+	private MergeSortView traceNaturalMergeSort(int elements[]) {
+		int runStarts[] = NaturalMergeSort.findRuns(elements);
+		NaturalMergeSort.IntMerger merger = new NaturalMergeSort.IntMerger(elements);
+
+		List<List<ArrayPair>> pairLists = new ArrayList<>();
+		int starts[] = runStarts.clone();
+		int runs = starts.length;
+		while (runs > 1) {
+			List<ArrayPair> pairList = new ArrayList<>();
+			int merged = 0;
+			for (int i = 0; i < runs; i += 2) {
+				if (i + 1 == runs) {
+					// An odd run out waits for the next level
+					starts[merged++] = starts[i];
+					break;
+				}
+				int base1 = starts[i];
+				int base2 = starts[i + 1];
+				int end = i + 2 < runs ? starts[i + 2] : elements.length;
+				pairList.add(new ArrayPair(Arrays.copyOfRange(elements, base1, base2),
+						Arrays.copyOfRange(elements, base2, end)));
+				if (SortCounters.ENABLED) {
+					SortCounters.recordAllocation((long) Integer.BYTES * (end - base1));
+				}
+				merger.merge(base1, base2, end);
+				starts[merged++] = base1;
+			}
+			pairLists.add(pairList);
+			runs = merged;
+		}
+
+		List<ArrayPair> sorted = new ArrayList<>();
+		sorted.add(new ArrayPair(elements.clone(), null));
+		pairLists.add(sorted);
+		if (SortCounters.ENABLED) {
+			SortCounters.recordAllocation((long) Integer.BYTES * (elements.length + starts.length));
+		}
+		MergeSortView view = new MergeSortView();
+		view.setPairLists(pairLists);
+		view.setRunStarts(runStarts);
+		return view;
+	}
+
 	@Override
 	public Integer[][] heapSort(Integer[] elements) {
-		Heap heap = new MinHeap(elements);
-		Integer sorted[] = new Integer[elements.length];
-		Integer[] iters[] = new Integer[elements.length][];
+		int[] iters[] = heapSort(ArrayUtilities.toPrimitive(elements));
+		Integer[] boxedIters[] = new Integer[iters.length][];
+		for (int i = 0; i < iters.length; i++) {
+			boxedIters[i] = ArrayUtilities.toBoxed(iters[i]);
+		}
+		return boxedIters;
+	}
+
+	/**
+	 * Records the state of the min-heap before every pop, the same as walking a
+	 * {@link org.ryebread.algorithmplayground.structures.heap.MinHeap} would, but over a primitive copy
+	 * of the elements
+	 */
+	@Override
+	public int[][] heapSort(int[] elements) {
+		List<int[]> iters = new ArrayList<>(elements.length);
+		heapSort(elements, iters::add);
+		return iters.toArray(new int[elements.length][]);
+	}
+
+	/**
+	 * Hands each snapshot of the heap to `treeConsumer` as soon as it's taken, rather than holding on
+	 * to all of them
+	 */
+	@Override
+	public void heapSort(int[] elements, Consumer<int[]> treeConsumer) {
+		measure("HEAP_SNAPSHOTS", elements.length, () -> heapSnapshots(elements, treeConsumer));
+	}
+
+	private void heapSnapshots(int[] elements, Consumer<int[]> treeConsumer) {
+		int tree[] = elements.clone();
+		int heapSize = tree.length;
+		for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+			PrimitiveSorts.minHeapify(tree, i, heapSize);
+		}
 		for (int i = 0; i < elements.length; i++) {
-			iters[i] = heap.getTree();
-			sorted[i] = heap.pop();
+			treeConsumer.accept(Arrays.copyOf(tree, heapSize));
+			tree[0] = tree[--heapSize];
+			PrimitiveSorts.minHeapify(tree, 0, heapSize);
+		}
+		if (SortCounters.ENABLED) {
+			// One move to pop each element, and a snapshot of every heap size from n down to 1
+			long n = elements.length;
+			SortCounters.record(0, n);
+			SortCounters.recordAllocation(Integer.BYTES * (n + n * (n + 1) / 2));
 		}
-		return iters;
+	}
+
+	/**
+	 * Runs the same heap sort as {@link #heapSort(int[])}, but writes down each swap and pop as it
+	 * happens rather than copying the heap before every pop.  A full snapshot is only taken every
+	 * `snapshotInterval` pops, and never if the interval is 0 or less
+	 */
+	@Override
+	public HeapSortTrace heapSortTrace(int[] elements, int snapshotInterval) {
+		return measure("HEAP_TRACE", elements.length, () -> traceHeapSort(elements, snapshotInterval));
+	}
+
+	private HeapSortTrace traceHeapSort(int[] elements, int snapshotInterval) {
+		int tree[] = elements.clone();
+		int heapSize = tree.length;
+		IntStream.Builder events = IntStream.builder();
+		int eventCount = 0;
+
+		for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+			eventCount += minHeapify(tree, i, heapSize, events);
+		}
+
+		List<int[]> snapshots = new ArrayList<>();
+		IntStream.Builder snapshotOffsets = IntStream.builder();
+		long snapshotBytes = 0;
+		for (int i = 0; i < elements.length; i++) {
+			if (snapshotInterval > 0 && i % snapshotInterval == 0) {
+				snapshots.add(Arrays.copyOf(tree, heapSize));
+				snapshotOffsets.add(eventCount);
+				if (SortCounters.ENABLED) {
+					snapshotBytes += (long) Integer.BYTES * heapSize;
+				}
+			}
+			events.add(HeapSortTrace.POP).add(tree[0]);
+			eventCount += 2;
+			tree[0] = tree[--heapSize];
+			eventCount += minHeapify(tree, 0, heapSize, events);
+		}
+
+		HeapSortTrace trace = new HeapSortTrace();
+		trace.setInitialTree(elements.clone());
+		trace.setEvents(events.build().toArray());
+		trace.setSnapshotInterval(snapshotInterval);
+		trace.setSnapshots(snapshots);
+		trace.setSnapshotOffsets(snapshotOffsets.build().toArray());
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, elements.length);
+			// The working copy, the initial tree and the events, besides the snapshots
+			SortCounters.recordAllocation(snapshotBytes + (long) Integer.BYTES * (2L * elements.length + eventCount));
+		}
+		return trace;
+	}
+
+	/**
+	 * The same sift down as {@link PrimitiveSorts#minHeapify}, written as swaps so that each one can
+	 * be recorded
+	 * @return the number of ints added to `events`
+	 */
+	private int minHeapify(int[] tree, int index, int heapSize, IntStream.Builder events) {
+		int added = 0;
+		long comparisons = 0;
+		int child;
+		while ((child = (index << 1) + 1) < heapSize) {
+			if (SortCounters.ENABLED) {
+				comparisons += child + 1 < heapSize ? 2 : 1;
+			}
+			if (child + 1 < heapSize && tree[child + 1] < tree[child]) {
+				child++;
+			}
+			if (tree[child] >= tree[index]) {
+				break;
+			}
+			ArrayUtilities.swap(tree, index, child);
+			events.add(index).add(child);
+			added += 2;
+			index = child;
+		}
+		if (SortCounters.ENABLED) {
+			// Every event is a swap
+			SortCounters.record(comparisons, added);
+		}
+		return added;
+	}
+
+	@Override
+	public void sort(int[] elements, SortAlgorithm algorithm) {
+		PrimitiveSorts.sort(elements, algorithm);
+	}
+
+	@Override
+	public void sort(long[] elements, SortAlgorithm algorithm) {
+		PrimitiveSorts.sort(elements, algorithm);
+	}
+
+	/**
+	 * The k smallest (or largest) elements of the stream, best first.  The stream is consumed as it
+	 * goes, never held in memory, and may be parallel
+	 */
+	@Override
+	public int[] topK(IntStream elements, int k, boolean largest) {
+		return elements.collect(() -> new TopKSelector(k, largest), TopKSelector::accept, TopKSelector::merge)
+				.result();
+	}
+
+	/**
+	 * Quickselect: partially sorts `elements` in place, so that elements[n] ends up where a full sort
+	 * would put it.  Expected linear time, n*lg_n at worst
+	 */
+	@Override
+	public int nthElement(int elements[], int n) {
+		return IntroSort.nthElement(elements, n);
+	}
+
+	@Override
+	public long nthElement(long elements[], int n) {
+		return IntroSort.nthElement(elements, n);
+	}
+
+	/**
+	 * The lower median, for even lengths: the smaller of the two middle elements
+	 */
+	@Override
+	public int median(int elements[]) {
+		return IntroSort.nthElement(elements, (elements.length - 1) >>> 1);
+	}
+
+	@Override
+	public long median(long elements[]) {
+		return IntroSort.nthElement(elements, (elements.length - 1) >>> 1);
+	}
+
+	/**
+	 * Sort a file of little-endian longs too large to hold in memory, using no more than roughly
+	 * `memoryBudget` bytes.  See {@link ExternalMergeSort}
+	 */
+	@Override
+	public void externalSortLongs(Path input, Path output, long memoryBudget) throws IOException {
+		ExternalMergeSort.sortLongs(input, output, memoryBudget);
+	}
+
+	/**
+	 * Sort the lines of a UTF-8 text file too large to hold in memory, using no more than roughly
+	 * `memoryBudget` bytes.  See {@link ExternalMergeSort}
+	 */
+	@Override
+	public void externalSortLines(Path input, Path output, long memoryBudget) throws IOException {
+		ExternalMergeSort.sortLines(input, output, memoryBudget);
 	}
 
 	/**
@@ -90,7 +487,15 @@ public class SortServiceImpl implements SortService {
 		return (int) Math.ceil(Math.log(length) / Math.log(2)) + 1;
 	}
 
-	private void merge(List<List<ArrayPair>> pairLists, Integer sequence[], int lower, int middle, int upper,
+	private List<List<ArrayPair>> emptyPairLists(int size) {
+		List<List<ArrayPair>> pairLists = new ArrayList<List<ArrayPair>>(size);
+		for (int i = 0; i < size; i++) {
+			pairLists.add(new ArrayList<>());
+		}
+		return pairLists;
+	}
+
+	private void merge(List<List<ArrayPair>> pairLists, int sequence[], int lower, int middle, int upper,
 			int level) {
 		if (lower >= upper) {
 			return;
@@ -102,36 +507,105 @@ public class SortServiceImpl implements SortService {
 		int rightMiddle = (int) Math.floor((middle + upper) / 2);
 		merge(pairLists, sequence, middle + 1, rightMiddle, upper, level + 1);
 
-		int leftLength = middle - lower + 1;
-		int rightLength = upper - middle;
-
-		Integer left[] = new Integer[leftLength + 1];
-		Integer right[] = new Integer[rightLength + 1];
-
-		for (int i = 0; i < leftLength; i++) {
-			left[i] = sequence[lower + i];
-		}
-
-		for (int j = 0; j < rightLength; j++) {
-			right[j] = sequence[middle + j + 1];
-		}
-
-		pairLists.get(level)
-				.add(new ArrayPair(Arrays.copyOf(left, leftLength).clone(), Arrays.copyOf(right, rightLength).clone()));
+		pairLists.get(level).add(mergeHalves(sequence, lower, middle, upper));
+	}
 
-		left[leftLength] = Integer.MAX_VALUE;
-		right[rightLength] = Integer.MAX_VALUE;
+	/**
+	 * Merge the sorted halves [lower, middle] and [middle + 1, upper] of the sequence
+	 * @return the pair of halves as they were before the merge
+	 */
+	private ArrayPair mergeHalves(int sequence[], int lower, int middle, int upper) {
+		int left[] = Arrays.copyOfRange(sequence, lower, middle + 1);
+		int right[] = Arrays.copyOfRange(sequence, middle + 1, upper + 1);
 
+		/*
+		 * No sentinels here -- Integer.MAX_VALUE is a perfectly valid element of an int array,
+		 * so each side is bounds checked instead.  `left` and `right` are only read from
+		 * during the merge, so the copies recorded in the pair list can double as scratch space
+		 */
 		int leftIndex = 0;
 		int rightIndex = 0;
+		long comparisons = 0;
 
 		for (int k = lower; k <= upper; k++) {
-			if (left[leftIndex] < right[rightIndex]) {
+			if (SortCounters.ENABLED && leftIndex < left.length && rightIndex < right.length) {
+				comparisons++;
+			}
+			if (rightIndex >= right.length || (leftIndex < left.length && left[leftIndex] < right[rightIndex])) {
 				sequence[k] = left[leftIndex++];
 			} else {
 				sequence[k] = right[rightIndex++];
 			}
 		}
+		if (SortCounters.ENABLED) {
+			// Every element is copied out to a half and back again
+			int length = upper - lower + 1;
+			SortCounters.record(comparisons, 2L * length);
+			SortCounters.recordAllocation((long) Integer.BYTES * length);
+		}
+		return new ArrayPair(left, right);
+	}
+
+	/**
+	 * The fork/join version of {@link #merge}.  Subarrays below {@link #TRACE_CUTOFF} are handed to the
+	 * sequential merge, and everything it recorded for each level is filed under `lower`.  What each task
+	 * counts goes to `counters`, the counters of the thread that started the sort
+	 */
+	@SuppressWarnings("serial")
+	private class TracedMergeTask extends RecursiveAction {
+
+		private final List<SortedMap<Integer, List<ArrayPair>>> levels;
+		private final int sequence[];
+		private final int lower;
+		private final int middle;
+		private final int upper;
+		private final int level;
+		private final SortCounters counters;
+
+		TracedMergeTask(List<SortedMap<Integer, List<ArrayPair>>> levels, int sequence[], int lower, int middle,
+				int upper, int level, SortCounters counters) {
+			this.levels = levels;
+			this.sequence = sequence;
+			this.lower = lower;
+			this.middle = middle;
+			this.upper = upper;
+			this.level = level;
+			this.counters = counters;
+		}
+
+		@Override
+		protected void compute() {
+			if (lower >= upper) {
+				return;
+			}
+
+			if (upper - lower + 1 < TRACE_CUTOFF) {
+				List<List<ArrayPair>> pairLists = emptyPairLists(levels.size());
+				SortCounters local = SortCounters.ENABLED ? SortCounters.enterTask(counters) : null;
+				merge(pairLists, sequence, lower, middle, upper, level);
+				if (SortCounters.ENABLED) {
+					SortCounters.exitTask(counters, local);
+				}
+				for (int i = level; i < pairLists.size(); i++) {
+					if (!pairLists.get(i).isEmpty()) {
+						levels.get(i).put(lower, pairLists.get(i));
+					}
+				}
+				return;
+			}
+
+			int leftMiddle = (int) Math.floor((lower + middle) / 2);
+			int rightMiddle = (int) Math.floor((middle + upper) / 2);
+			invokeAll(new TracedMergeTask(levels, sequence, lower, leftMiddle, middle, level + 1, counters),
+					new TracedMergeTask(levels, sequence, middle + 1, rightMiddle, upper, level + 1, counters));
+
+			SortCounters local = SortCounters.ENABLED ? SortCounters.enterTask(counters) : null;
+			ArrayPair pair = mergeHalves(sequence, lower, middle, upper);
+			if (SortCounters.ENABLED) {
+				SortCounters.exitTask(counters, local);
+			}
+			levels.get(level).put(lower, Collections.singletonList(pair));
+		}
 	}
 
 	/**
@@ -140,10 +614,20 @@ public class SortServiceImpl implements SortService {
 	 */
 	@Override
 	public void lsdRadixSort(String[] strings, int len) {
+		measure("STRING_LSD", strings.length, () -> lsd(strings, len));
+	}
+
+	private void lsd(String[] strings, int len) {
 		if (strings.length == 0) {
 			return;
 		}
 		String aux[] = new String[strings.length]; //Used for intermediate storage during the key-indexed sort
+		if (SortCounters.ENABLED) {
+			// Each pass writes every string into aux and back again
+			SortCounters.record(0, 2L * strings.length * len);
+			SortCounters.recordAllocation((long) SortCounters.REFERENCE_BYTES * aux.length
+					+ (long) Integer.BYTES * len * (RADIX + 1));
+		}
 		for (int i = len - 1; i >= 0; i--) {
 			/*
 			 * Each index represents a character in the alphabet,
@@ -205,17 +689,86 @@ public class SortServiceImpl implements SortService {
 		}
 	}
 
+	/**
+	 * The same sort as {@link #lsdRadixSort(String[], int)}, with each pass optionally split across the
+	 * common fork/join pool, and optionally run over keys packed into byte columns up front.  See
+	 * {@link ParallelLsdRadixSort}
+	 */
+	@Override
+	public void lsdRadixSort(String[] strings, int len, boolean parallel, boolean packKeys) {
+		if (!parallel && !packKeys) {
+			lsdRadixSort(strings, len);
+			return;
+		}
+		String algorithm = "STRING_LSD" + (parallel ? "_PARALLEL" : "") + (packKeys ? "_PACKED" : "");
+		measure(algorithm, strings.length, () -> ParallelLsdRadixSort.sort(strings, len, parallel, packKeys));
+	}
+
+	/**
+	 * Sort ints a byte at a time, skipping any byte that's the same in every element.  See
+	 * {@link IntegerLsdRadixSort}
+	 */
+	@Override
+	public void lsdRadixSort(int[] elements) {
+		IntegerLsdRadixSort.sort(elements);
+	}
+
+	@Override
+	public void lsdRadixSort(long[] elements) {
+		IntegerLsdRadixSort.sort(elements);
+	}
+
 	@Override
 	public void msdRadixSort(String[] strings) {
-		String aux[] = new String[strings.length];
-		msd(strings, aux, 0, strings.length - 1, 0);
+		measure("STRING_MSD", strings.length, () -> {
+			String aux[] = new String[strings.length];
+			if (SortCounters.ENABLED) {
+				SortCounters.recordAllocation((long) SortCounters.REFERENCE_BYTES * aux.length);
+			}
+			msd(strings, aux, 0, strings.length - 1, 0);
+		});
+	}
 
+	/**
+	 * An MSD radix sort that runs off an explicit stack rather than recursion, and insertion sorts any
+	 * subarray of `insertionCutoff` strings or fewer.  See {@link HybridMsdRadixSort}
+	 */
+	@Override
+	public void msdRadixSort(String[] strings, int insertionCutoff) {
+		measure("STRING_MSD_HYBRID", strings.length, () -> HybridMsdRadixSort.sort(strings, insertionCutoff));
+	}
+
+	/**
+	 * {@link #lsdRadixSort(String[], int)} for keys that may hold any char, not just the first 256.
+	 * See {@link Utf16RadixSort}
+	 */
+	@Override
+	public void utf16LsdRadixSort(String[] strings, int len) {
+		measure("UTF16_LSD", strings.length, () -> Utf16RadixSort.lsdSort(strings, len));
+	}
+
+	@Override
+	public void utf16MsdRadixSort(String[] strings) {
+		measure("UTF16_MSD", strings.length,
+				() -> Utf16RadixSort.msdSort(strings, HybridMsdRadixSort.DEFAULT_INSERTION_CUTOFF));
 	}
 
 	@Override
 	public void threeWayRadixQuickSort(String[] strings) {
-		threeWayQuickSort(strings, 0, strings.length - 1, 0);
+		measure("STRING_THREE_WAY", strings.length, () -> threeWayQuickSort(strings, 0, strings.length - 1, 0));
+	}
 
+	/**
+	 * With `parallel` set, the less-than and greater-than partitions of large subarrays are sorted as
+	 * separate fork/join tasks.  See {@link ParallelThreeWayRadixQuickSort}
+	 */
+	@Override
+	public void threeWayRadixQuickSort(String[] strings, boolean parallel) {
+		if (parallel) {
+			measure("STRING_THREE_WAY_PARALLEL", strings.length, () -> ParallelThreeWayRadixQuickSort.sort(strings));
+		} else {
+			threeWayRadixQuickSort(strings);
+		}
 	}
 
 	private void threeWayQuickSort(String[] strings, int low, int high, int charPosition) {
@@ -227,6 +780,8 @@ public class SortServiceImpl implements SortService {
 		int greaterThan = high;
 		int anchorChar = charAt(strings[low], charPosition);
 		int i = low + 1;
+		long comparisons = 0;
+		long moves = 0;
 		/*
 		 * This loop should be familiar to those in the know of quick sort.
 		 * 
@@ -238,12 +793,26 @@ public class SortServiceImpl implements SortService {
 			int comparisonChar = charAt(strings[i], charPosition);
 			if (comparisonChar < anchorChar) {
 				ArrayUtilities.swap(strings, lessThan++, i++);
+				if (SortCounters.ENABLED) {
+					comparisons++;
+					moves += 2;
+				}
 			} else if (anchorChar < comparisonChar) {
 				ArrayUtilities.swap(strings, i, greaterThan--);
+				if (SortCounters.ENABLED) {
+					comparisons += 2;
+					moves += 2;
+				}
 			} else {
 				i++;
+				if (SortCounters.ENABLED) {
+					comparisons += 2;
+				}
 			}
 		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+		}
 
 		/*
 		 * The 'three-way' aspect of this sort.
@@ -315,6 +884,10 @@ public class SortServiceImpl implements SortService {
 		for (int i = low; i <= high; i++) {
 			strings[i] = aux[i - low];
 		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, 2L * (high - low + 1));
+			SortCounters.recordAllocation((long) Integer.BYTES * count.length);
+		}
 
 		/*
 		 * Recursively sort the strings array, by grouping each set of strings
@@ -326,6 +899,27 @@ public class SortServiceImpl implements SortService {
 		}
 	}
 
+	/**
+	 * Runs `sort`, measured if every sort is being counted.  The streamed sorts are timed along with
+	 * whatever their consumer does with each frame
+	 */
+	private void measure(String algorithm, int size, Runnable sort) {
+		if (sortInstrumentation == null || !sortInstrumentation.isCounting()) {
+			sort.run();
+			return;
+		}
+		sortInstrumentation.measure(algorithm, size, sort);
+	}
+
+	private <T> T measure(String algorithm, int size, Supplier<T> sort) {
+		if (sortInstrumentation == null || !sortInstrumentation.isCounting()) {
+			return sort.get();
+		}
+		List<T> result = new ArrayList<>(1);
+		sortInstrumentation.measure(algorithm, size, () -> result.add(sort.get()));
+		return result.get(0);
+	}
+
 	/**
 	 * A convenience method to return a '-1' if the character position is out of the strings range
 	 * @param str
@@ -0,0 +1,103 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import org.ryebread.algorithmplayground.structures.heap.IntHeap;
+import org.ryebread.algorithmplayground.utils.ArrayUtilities;
+
+/**
+ * Keeps the k smallest (or largest) elements it has been handed, in O(n log k) time and O(k) space.
+ *
+ * The first k elements go into a heap turned "upside down" relative to what's being kept: a max-heap
+ * for the k smallest, so its root is always the worst of the elements kept so far.  After that, each
+ * new element is compared against the root.  Most of a large input loses that comparison and is
+ * dropped without touching the heap; anything that wins replaces the root and is sifted down.  The
+ * heap is a 4-ary {@link IntHeap}, so a large k doesn't mean a boxed Integer per element kept.
+ *
+ * A selector is an accumulator for {@link java.util.stream.IntStream#collect}, so the input never has
+ * to be held in memory, and parallel streams get one selector per thread, combined with
+ * {@link #merge}.
+ *
+ * @author Ryan
+ */
+final class TopKSelector implements IntConsumer {
+
+	private static final int HEAP_ARITY = 4;
+
+	private final int k;
+	private final boolean largest;
+
+	/*
+	 * Elements seen before there were k of them to build the heap from
+	 */
+	private int filling[];
+	private int filled;
+
+	private IntHeap heap;
+	private int boundary;
+
+	TopKSelector(int k, boolean largest) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k must not be negative: " + k);
+		}
+		this.k = k;
+		this.largest = largest;
+		this.filling = new int[Math.min(k, 1024)];
+	}
+
+	@Override
+	public void accept(int element) {
+		if (heap != null) {
+			if (largest ? element > boundary : element < boundary) {
+				heap.replaceTop(element);
+				boundary = heap.peek();
+			}
+			return;
+		}
+		if (k == 0) {
+			return;
+		}
+
+		if (filled == filling.length) {
+			filling = Arrays.copyOf(filling, (int) Math.min(k, 2L * filling.length));
+		}
+		filling[filled++] = element;
+		if (filled == k) {
+			heap = largest ? IntHeap.min(HEAP_ARITY, filling) : IntHeap.max(HEAP_ARITY, filling);
+			boundary = heap.peek();
+			filling = null;
+		}
+	}
+
+	void merge(TopKSelector other) {
+		int kept[] = other.heap == null ? Arrays.copyOf(other.filling, other.filled) : other.heap.toArray();
+		for (int element : kept) {
+			accept(element);
+		}
+	}
+
+	/**
+	 * @return the elements kept, best first: ascending for the k smallest, descending for the k largest
+	 */
+	int[] result() {
+		if (heap == null) {
+			int result[] = Arrays.copyOf(filling, filled);
+			Arrays.sort(result);
+			if (largest) {
+				for (int i = 0, j = filled - 1; i < j; i++, j--) {
+					ArrayUtilities.swap(result, i, j);
+				}
+			}
+			return result;
+		}
+
+		// The root is always the worst kept, so popping fills the result from the back
+		int result[] = new int[heap.size()];
+		for (int i = result.length - 1; i >= 0; i--) {
+			result[i] = heap.pop();
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,251 @@
+package org.ryebread.algorithmplayground.services.sort;
+
+import java.util.Arrays;
+
+import org.ryebread.algorithmplayground.utils.ArrayUtilities;
+
+/**
+ * String radix sorts for keys containing any char, not just the first 256.
+ *
+ * The other string radix sorts index their count arrays by char, so anything past 0xFF runs off the
+ * end of them.  Counting over the whole of UTF-16 would take 65536 slots, which the MSD sort would
+ * then have to clear and scan for every subarray.  Instead each char is treated as two 8 bit digits,
+ * high byte first, so the counts stay at 256 slots and fit comfortably in L1.  Comparing chars byte
+ * by byte in that order is the same as comparing them whole, so the result is exactly
+ * {@link String#compareTo} order.
+ *
+ * Mostly-ASCII keys would pay for a second pass per char whose digits are all the same, so both sorts
+ * check their counts first and skip any pass that would leave everything in a single bucket.
+ *
+ * @author Ryan
+ */
+final class Utf16RadixSort {
+
+	private static final int RADIX = 256;
+
+	private Utf16RadixSort() {
+	}
+
+	/**
+	 * LSD sort of equal length strings on their first `len` chars.  Both digits of a char are counted
+	 * in a single read of the keys, then scattered low byte first.  As in {@link ParallelLsdRadixSort},
+	 * the strings and auxiliary arrays swap roles after every pass instead of copying back
+	 */
+	static void lsdSort(String[] strings, int len) {
+		int n = strings.length;
+		if (n < 2) {
+			return;
+		}
+		int highCount[] = new int[RADIX + 1];
+		int lowCount[] = new int[RADIX + 1];
+		String from[] = strings;
+		String to[] = new String[n];
+		long moves = 0;
+
+		for (int d = len - 1; d >= 0; d--) {
+			Arrays.fill(highCount, 0);
+			Arrays.fill(lowCount, 0);
+			for (int i = 0; i < n; i++) {
+				char c = from[i].charAt(d);
+				highCount[(c >>> 8) + 1]++;
+				lowCount[(c & 0xFF) + 1]++;
+			}
+
+			if (!isSingleBucket(lowCount, n)) {
+				toStarts(lowCount);
+				for (int i = 0; i < n; i++) {
+					to[lowCount[from[i].charAt(d) & 0xFF]++] = from[i];
+				}
+				if (SortCounters.ENABLED) {
+					moves += n;
+				}
+				String swap[] = from;
+				from = to;
+				to = swap;
+			}
+			if (!isSingleBucket(highCount, n)) {
+				toStarts(highCount);
+				for (int i = 0; i < n; i++) {
+					to[highCount[from[i].charAt(d) >>> 8]++] = from[i];
+				}
+				if (SortCounters.ENABLED) {
+					moves += n;
+				}
+				String swap[] = from;
+				from = to;
+				to = swap;
+			}
+		}
+
+		if (from != strings) {
+			System.arraycopy(from, 0, strings, 0, n);
+			if (SortCounters.ENABLED) {
+				moves += n;
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, moves);
+			SortCounters.recordAllocation((long) SortCounters.REFERENCE_BYTES * n + 2L * Integer.BYTES * (RADIX + 1));
+		}
+	}
+
+	/**
+	 * MSD sort over strings of any length, run off an explicit stack like {@link HybridMsdRadixSort}.
+	 * Stack entries hold a digit position rather than a char position: digit 2i is the high byte of
+	 * char i, and digit 2i + 1 its low byte
+	 */
+	static void msdSort(String[] strings, int insertionCutoff) {
+		if (strings.length < 2) {
+			return;
+		}
+		String aux[] = new String[strings.length];
+		int count[] = new int[RADIX + 2];
+		int stack[] = new int[3 * 64];
+		int top = 0;
+		long moves = 0;
+		long stackBytes = (long) Integer.BYTES * stack.length;
+
+		stack[top++] = 0;
+		stack[top++] = strings.length - 1;
+		stack[top++] = 0;
+
+		while (top > 0) {
+			int digit = stack[--top];
+			int high = stack[--top];
+			int low = stack[--top];
+
+			if (high - low < insertionCutoff) {
+				insertionSort(strings, low, high, digit >>> 1);
+				continue;
+			}
+
+			Arrays.fill(count, 0);
+			for (int i = low; i <= high; i++) {
+				count[digitAt(strings[i], digit) + 2]++;
+			}
+
+			// Every string has the same digit, so go straight on to the next one, unless they've all ended
+			if (isSingleBucket(count, high - low + 1)) {
+				if (digitAt(strings[low], digit) >= 0) {
+					if (SortCounters.ENABLED && top + 3 > stack.length) {
+						stackBytes += (long) Integer.BYTES * (stack.length << 1);
+					}
+					stack = grown(stack, top);
+					top = push(stack, top, low, high, digit + 1);
+				}
+				continue;
+			}
+
+			for (int r = 0; r < RADIX + 1; r++) {
+				count[r + 1] += count[r];
+			}
+			for (int i = low; i <= high; i++) {
+				aux[count[digitAt(strings[i], digit) + 1]++] = strings[i];
+			}
+			System.arraycopy(aux, 0, strings, low, high - low + 1);
+			if (SortCounters.ENABLED) {
+				moves += 2L * (high - low + 1);
+			}
+
+			for (int c = 0; c < RADIX; c++) {
+				if (count[c + 1] - count[c] > 1) {
+					if (SortCounters.ENABLED && top + 3 > stack.length) {
+						stackBytes += (long) Integer.BYTES * (stack.length << 1);
+					}
+					stack = grown(stack, top);
+					top = push(stack, top, low + count[c], low + count[c + 1] - 1, digit + 1);
+				}
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(0, moves);
+			SortCounters.recordAllocation((long) SortCounters.REFERENCE_BYTES * aux.length
+					+ (long) Integer.BYTES * count.length + stackBytes);
+		}
+	}
+
+	/**
+	 * @return byte `digit` of the string, two per char with the high byte first, or -1 past its end
+	 */
+	private static int digitAt(String str, int digit) {
+		int index = digit >>> 1;
+		if (index >= str.length()) {
+			return -1;
+		}
+		char c = str.charAt(index);
+		return (digit & 1) == 0 ? c >>> 8 : c & 0xFF;
+	}
+
+	/**
+	 * @param count - counts shifted up by at least one slot, as the counting loops leave them
+	 */
+	private static boolean isSingleBucket(int[] count, int n) {
+		for (int r = 0; r < count.length; r++) {
+			if (count[r] != 0) {
+				return count[r] == n;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Turns counts stored one slot up into the index each digit's bucket starts at
+	 */
+	private static void toStarts(int[] count) {
+		for (int r = 0; r < RADIX; r++) {
+			count[r + 1] += count[r];
+		}
+	}
+
+	private static int push(int[] stack, int top, int low, int high, int digit) {
+		stack[top++] = low;
+		stack[top++] = high;
+		stack[top++] = digit;
+		return top;
+	}
+
+	/**
+	 * @return `stack`, or a copy twice the size if there isn't room for another entry
+	 */
+	private static int[] grown(int[] stack, int top) {
+		return top + 3 > stack.length ? Arrays.copyOf(stack, stack.length << 1) : stack;
+	}
+
+	/**
+	 * Insertion sort comparing whole chars from `charPosition` on.  A subarray sitting on the low byte
+	 * of a char has only matched that char's high byte so far, so the char itself is compared again
+	 */
+	private static void insertionSort(String[] strings, int low, int high, int charPosition) {
+		long comparisons = 0;
+		long moves = 0;
+		for (int i = low + 1; i <= high; i++) {
+			int j = i;
+			for (; j > low && less(strings[j], strings[j - 1], charPosition); j--) {
+				ArrayUtilities.swap(strings, j, j - 1);
+				if (SortCounters.ENABLED) {
+					comparisons += HybridMsdRadixSort.charsCompared(strings[j], strings[j - 1], charPosition);
+					moves += 2;
+				}
+			}
+			if (SortCounters.ENABLED && j > low) {
+				comparisons += HybridMsdRadixSort.charsCompared(strings[j], strings[j - 1], charPosition);
+			}
+		}
+		if (SortCounters.ENABLED) {
+			SortCounters.record(comparisons, moves);
+		}
+	}
+
+	private static boolean less(String a, String b, int charPosition) {
+		int length = Math.min(a.length(), b.length());
+		for (int i = charPosition; i < length; i++) {
+			char x = a.charAt(i);
+			char y = b.charAt(i);
+			if (x != y) {
+				return x < y;
+			}
+		}
+		return a.length() < b.length();
+	}
+
+}
@@ -47,15 +47,23 @@ public class StringServiceImpl implements StringService {
 		return lrs;
 	}
 
+	/**
+	 * The DFA has a row for each of the first {@link #RADIX} chars.  Any char past the last row isn't in
+	 * `str`, so it sends every state back to 0.  A row for every char a pattern could hold would take
+	 * 65536 * str.length() ints, so `str` itself can only hold chars below RADIX
+	 */
 	@Override
 	public int[][] createDfa(String str) {
+		if (!isLatin1(str)) {
+			throw new IllegalArgumentException("A DFA can only be built over chars below " + RADIX);
+		}
 		int[] dfa[] = new int[RADIX][str.length()];
 
 		dfa[str.charAt(0)][0] = 1;
 
 		for (int x = 0, j = 1; j < str.length(); j++) {
 			//Copy mismatch states from the restart state to the current state
-			for (int c = 0; c < RADIX; c++) {
+			for (int c = 0; c < dfa.length; c++) {
 				dfa[c][j] = dfa[c][x];
 			}
 			//Overwrite the match case to move to the next state
@@ -68,8 +76,15 @@ public class StringServiceImpl implements StringService {
 		return dfa;
 	}
 
+	/**
+	 * Search strings with chars past {@link #RADIX} are searched with the failure function instead of
+	 * the DFA
+	 */
 	@Override
 	public int knuthMorrisPratt(String str, String searchStr) {
+		if (!isLatin1(searchStr)) {
+			return knuthMorrisPrattFailure(str, searchStr);
+		}
 
 		/*
 		 * This would normally be done independently and injected in, changing
@@ -83,22 +98,67 @@ public class StringServiceImpl implements StringService {
 		int currentIndex = 0;
 		int currentState = 0;
 		for (; currentIndex < strLength && currentState < searchStrLength; currentIndex++) {
-			currentState = dfa[str.charAt(currentIndex)][currentState];
+			char c = str.charAt(currentIndex);
+			currentState = c < dfa.length ? dfa[c][currentState] : 0;
 		}
 		return currentState == searchStrLength ? currentIndex - searchStrLength : strLength;
 	}
 
+	/**
+	 * The same search, over the failure function rather than the DFA: one int per char of
+	 * `searchStr`, whatever its chars, at the cost of falling back through the failure links on a
+	 * mismatch instead of taking one transition
+	 */
+	private int knuthMorrisPrattFailure(String str, String searchStr) {
+		int failure[] = createFailureFunction(searchStr);
+		int strLength = str.length();
+		int searchStrLength = searchStr.length();
+
+		int currentState = 0;
+		for (int currentIndex = 0; currentIndex < strLength; currentIndex++) {
+			char c = str.charAt(currentIndex);
+			while (currentState > 0 && searchStr.charAt(currentState) != c) {
+				currentState = failure[currentState - 1];
+			}
+			if (searchStr.charAt(currentState) == c) {
+				currentState++;
+			}
+			if (currentState == searchStrLength) {
+				return currentIndex + 1 - searchStrLength;
+			}
+		}
+		return strLength;
+	}
+
+	/**
+	 * failure[j] is the length of the longest proper prefix of searchStr[0, j] that's also a suffix of
+	 * it -- the state to fall back to on a mismatch after matching j + 1 chars
+	 */
+	private int[] createFailureFunction(String searchStr) {
+		int failure[] = new int[searchStr.length()];
+		for (int j = 1, x = 0; j < searchStr.length(); j++) {
+			while (x > 0 && searchStr.charAt(j) != searchStr.charAt(x)) {
+				x = failure[x - 1];
+			}
+			if (searchStr.charAt(j) == searchStr.charAt(x)) {
+				x++;
+			}
+			failure[j] = x;
+		}
+		return failure;
+	}
+
 	@Override
 	public int boyerMoore(String str, String pattern) {
 		int right[] = createRightArray(pattern);
 		int strLength = str.length();
 		int patternLength = pattern.length();
 		int skip;
-		for (int i = 0; i < strLength - patternLength; i += skip) {
+		for (int i = 0; i <= strLength - patternLength; i += skip) {
 			skip = 0;
 			for (int j = patternLength - 1; j >= 0; j--) {
 				if (pattern.charAt(j) != str.charAt(i + j)) {
-					skip = Math.max(1, j - right[str.charAt(i + j)]);
+					skip = Math.max(1, j - right[str.charAt(i + j) & (RADIX - 1)]);
 					break;
 				}
 			}
@@ -110,15 +170,29 @@ public class StringServiceImpl implements StringService {
 		return strLength;
 	}
 	
+	/**
+	 * Chars are looked up by their low byte, so chars past 0xFF share a slot with a Latin-1 char rather
+	 * than needing 65536 slots.  Each slot holds the rightmost position of any char sharing it, which
+	 * can only make a skip shorter than the exact table's, never long enough to jump over a match
+	 */
 	private int[] createRightArray(String pattern) {
 		int right[] = new int[RADIX];
-		for (int i = 0; i < RADIX; i++) {
+		for (int i = 0; i < right.length; i++) {
 			right[i] = -1;
 		}
 		for (int i = 0; i < pattern.length(); i++) {
 			char c = pattern.charAt(i);
-			right[c] = i;
+			right[c & (RADIX - 1)] = i;
 		}
 		return right;
 	}
+
+	private boolean isLatin1(String str) {
+		for (int i = 0; i < str.length(); i++) {
+			if (str.charAt(i) >= RADIX) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
@@ -0,0 +1,399 @@
+package org.ryebread.algorithmplayground.structures.graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * An immutable graph in compressed sparse row form: every vertex is numbered from 0 to n - 1, and the
+ * edges out of vertex v are entries offsets[v] up to offsets[v + 1] of `targets`, which holds the
+ * number of the vertex each edge goes to, and of `weights`, which holds its weight.
+ *
+ * An {@link AdjacencyMapGraph} spends a map entry and a linked list node on every edge, plus the
+ * {@link Edge} itself and its boxed weight, all scattered about the heap.  Here an edge costs 4 bytes
+ * for its target and 8 for its weight, or just the 4 if the graph is unweighted, and the edges out of
+ * a vertex sit next to each other in memory.  Algorithms that work with vertex numbers directly, through
+ * {@link #edgeStart}, {@link #edgeEnd}, {@link #target} and {@link #weight}, walk the graph without
+ * allocating anything.  The {@link Graph} methods still work, creating {@link Edge}s as they're asked
+ * for.
+ *
+ * Build one from an existing graph with {@link #of(AdjacencyMapGraph)}, from a stream of edges with
+ * {@link #of(Collection, Stream, EdgeType)}, or edge by edge over integer vertices with a
+ * {@link Builder}, which never creates an object per edge.
+ *
+ * @author Ryan
+ *
+ * @param <T>
+ */
+public final class CsrGraph<T> implements WeightedGraph<T> {
+
+	private final List<T> vertices;
+	private final ToIntFunction<T> indexer;
+	private final int offsets[];
+	private final int targets[];
+	/*
+	 * null if the graph is unweighted
+	 */
+	private final long weights[];
+	private final EdgeType edgeType;
+
+	private CsrGraph(List<T> vertices, ToIntFunction<T> indexer, int[] offsets, int[] targets, long[] weights,
+			EdgeType edgeType) {
+		this.vertices = vertices;
+		this.indexer = indexer;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+		this.edgeType = edgeType;
+	}
+
+	/**
+	 * Copy a graph, keeping its edges in the order it has them.  The copy is weighted if the graph is a
+	 * {@link WeightedGraph}
+	 */
+	public static <T> CsrGraph<T> of(AdjacencyMapGraph<T> graph) {
+		List<T> vertices = new ArrayList<>(graph.getVertices());
+		Map<T, Integer> indices = indexVertices(vertices);
+		int n = vertices.size();
+		int offsets[] = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			offsets[v + 1] = offsets[v] + graph.getEdges(vertices.get(v)).size();
+		}
+		int targets[] = new int[offsets[n]];
+		long weights[] = graph instanceof WeightedGraph ? new long[offsets[n]] : null;
+		int edge = 0;
+		for (T vertex : vertices) {
+			for (Edge<T> out : graph.getEdges(vertex)) {
+				targets[edge] = indices.get(out.to());
+				if (weights != null) {
+					weights[edge] = out.getWeight();
+				}
+				edge++;
+			}
+		}
+		return new CsrGraph<>(Collections.unmodifiableList(vertices), vertex -> indices.getOrDefault(vertex, -1),
+				offsets, targets, weights, graph.edgeType);
+	}
+
+	/**
+	 * A weighted graph over `vertices`, with the edges of `edges`, each of which must be between two of
+	 * `vertices`.  An undirected graph gets every edge in both directions
+	 */
+	public static <T> CsrGraph<T> of(Collection<T> vertices, Stream<Edge<T>> edges, EdgeType edgeType) {
+		List<T> vertexList = new ArrayList<>(vertices);
+		Map<T, Integer> indices = indexVertices(vertexList);
+		Builder builder = new Builder(vertexList.size(), edgeType, EdgeWeight.WEIGHTED);
+		edges.forEachOrdered(edge -> builder.addEdge(index(indices, edge.from()), index(indices, edge.to()),
+				edge.getWeight()));
+		return builder.build(Collections.unmodifiableList(vertexList), vertex -> indices.getOrDefault(vertex, -1));
+	}
+
+	private static <T> Map<T, Integer> indexVertices(List<T> vertices) {
+		Map<T, Integer> indices = new HashMap<>(vertices.size() * 2);
+		for (int v = 0; v < vertices.size(); v++) {
+			indices.put(vertices.get(v), v);
+		}
+		return indices;
+	}
+
+	private static <T> int index(Map<T, Integer> indices, T vertex) {
+		Integer index = indices.get(vertex);
+		if (index == null) {
+			throw new IllegalArgumentException("Edge to or from " + vertex + ", which isn't a vertex");
+		}
+		return index;
+	}
+
+	/**
+	 * @return the vertex's number, or -1 if it isn't a vertex of this graph
+	 */
+	public int indexOf(T vertex) {
+		return indexer.applyAsInt(vertex);
+	}
+
+	public T vertexAt(int index) {
+		return vertices.get(index);
+	}
+
+	public int numEdges() {
+		return targets.length;
+	}
+
+	/**
+	 * @return the first of the edges out of vertex number `index`
+	 */
+	public int edgeStart(int index) {
+		return offsets[index];
+	}
+
+	/**
+	 * @return one past the last of the edges out of vertex number `index`
+	 */
+	public int edgeEnd(int index) {
+		return offsets[index + 1];
+	}
+
+	/**
+	 * @return the number of the vertex that edge number `edge` goes to
+	 */
+	public int target(int edge) {
+		return targets[edge];
+	}
+
+	/**
+	 * @return the weight of edge number `edge`, which is 0 if the graph is unweighted, as for an
+	 * unweighted {@link Edge}
+	 */
+	public long weight(int edge) {
+		return weights == null ? 0 : weights[edge];
+	}
+
+	public boolean isWeighted() {
+		return weights != null;
+	}
+
+	public EdgeType getEdgeType() {
+		return edgeType;
+	}
+
+	@Override
+	public void addVertex(T vertex) {
+		throw new UnsupportedOperationException("A CsrGraph can't be changed once built");
+	}
+
+	@Override
+	public boolean hasVertex(T vertex) {
+		return indexOf(vertex) >= 0;
+	}
+
+	@Override
+	public int numVertices() {
+		return vertices.size();
+	}
+
+	/**
+	 * @return the vertices, each at the index of its number
+	 */
+	@Override
+	public List<T> getVertices() {
+		return vertices;
+	}
+
+	@Override
+	public void addEdge(T from, T to) {
+		throw new UnsupportedOperationException("A CsrGraph can't be changed once built");
+	}
+
+	@Override
+	public void addEdge(T from, T to, Long weight) {
+		throw new UnsupportedOperationException("A CsrGraph can't be changed once built");
+	}
+
+	/**
+	 * @return the first edge from `from` to `to`, or null if there isn't one
+	 */
+	@Override
+	public Edge<T> getEdge(T from, T to) {
+		int edge = findEdge(from, to);
+		return edge < 0 ? null : new Edge<>(from, to, weight(edge));
+	}
+
+	/**
+	 * @return a new list of the edges out of `vertex`, or null if it isn't a vertex of this graph
+	 */
+	@Override
+	public Collection<Edge<T>> getEdges(T vertex) {
+		int from = indexOf(vertex);
+		if (from < 0) {
+			return null;
+		}
+		List<Edge<T>> edges = new ArrayList<>(offsets[from + 1] - offsets[from]);
+		for (int edge = offsets[from]; edge < offsets[from + 1]; edge++) {
+			edges.add(new Edge<>(vertex, vertices.get(targets[edge]), weight(edge)));
+		}
+		return edges;
+	}
+
+	@Override
+	public boolean hasEdge(T from, T to) {
+		return findEdge(from, to) >= 0;
+	}
+
+	/**
+	 * @return the graph with every edge turned around, weights and all, also in CSR form
+	 */
+	@Override
+	public CsrGraph<T> reverse() {
+		int n = vertices.size();
+		int reversedOffsets[] = new int[n + 1];
+		for (int target : targets) {
+			reversedOffsets[target + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			reversedOffsets[v + 1] += reversedOffsets[v];
+		}
+		int next[] = Arrays.copyOf(reversedOffsets, n);
+		int reversedTargets[] = new int[targets.length];
+		long reversedWeights[] = weights == null ? null : new long[weights.length];
+		for (int from = 0; from < n; from++) {
+			for (int edge = offsets[from]; edge < offsets[from + 1]; edge++) {
+				int slot = next[targets[edge]]++;
+				reversedTargets[slot] = from;
+				if (weights != null) {
+					reversedWeights[slot] = weights[edge];
+				}
+			}
+		}
+		return new CsrGraph<>(vertices, indexer, reversedOffsets, reversedTargets, reversedWeights, edgeType);
+	}
+
+	private int findEdge(T from, T to) {
+		int fromIndex = indexOf(from);
+		int toIndex = indexOf(to);
+		if (fromIndex < 0 || toIndex < 0) {
+			return -1;
+		}
+		for (int edge = offsets[fromIndex]; edge < offsets[fromIndex + 1]; edge++) {
+			if (targets[edge] == toIndex) {
+				return edge;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Builds a CsrGraph over the vertices 0 to n - 1 from edges added one at a time, in any order.  The
+	 * edges are held in primitive arrays until {@link #build}, which sorts them by the vertex they
+	 * come from with a counting sort, so building a graph of m edges creates O(1) objects and takes
+	 * O(n + m).  Edges out of a vertex keep the order they were added in.
+	 */
+	public static final class Builder {
+
+		private static final int INITIAL_CAPACITY = 16;
+
+		private final int numVertices;
+		private final EdgeType edgeType;
+		private final boolean weighted;
+		private int sources[] = new int[INITIAL_CAPACITY];
+		private int targets[] = new int[INITIAL_CAPACITY];
+		private long weights[];
+		private int numEdges;
+
+		public Builder(int numVertices, EdgeType edgeType, EdgeWeight edgeWeight) {
+			if (numVertices < 0) {
+				throw new IllegalArgumentException("numVertices must not be negative, not " + numVertices);
+			}
+			this.numVertices = numVertices;
+			this.edgeType = edgeType;
+			this.weighted = edgeWeight == EdgeWeight.WEIGHTED;
+			this.weights = weighted ? new long[INITIAL_CAPACITY] : null;
+		}
+
+		/**
+		 * Add an edge of the default weight, as {@link WeightedAdjacencyMapGraph} does, if the graph is
+		 * weighted
+		 */
+		public Builder addEdge(int from, int to) {
+			return addEdge(from, to, WeightedAdjacencyMapGraph.DEFAULT_WEIGHT);
+		}
+
+		/**
+		 * @param weight - ignored if the graph is unweighted
+		 */
+		public Builder addEdge(int from, int to, long weight) {
+			checkVertex(from);
+			checkVertex(to);
+			if (edgeType == EdgeType.UNDIRECTED) {
+				append(to, from, weight);
+			}
+			append(from, to, weight);
+			return this;
+		}
+
+		public CsrGraph<Integer> build() {
+			int n = numVertices;
+			return build(new IntegerVertices(n), vertex -> vertex != null && vertex >= 0 && vertex < n ? vertex : -1);
+		}
+
+		private <T> CsrGraph<T> build(List<T> vertices, ToIntFunction<T> indexer) {
+			int offsets[] = new int[numVertices + 1];
+			for (int e = 0; e < numEdges; e++) {
+				offsets[sources[e] + 1]++;
+			}
+			for (int v = 0; v < numVertices; v++) {
+				offsets[v + 1] += offsets[v];
+			}
+			int next[] = Arrays.copyOf(offsets, numVertices);
+			int sortedTargets[] = new int[numEdges];
+			long sortedWeights[] = weighted ? new long[numEdges] : null;
+			for (int e = 0; e < numEdges; e++) {
+				int slot = next[sources[e]]++;
+				sortedTargets[slot] = targets[e];
+				if (weighted) {
+					sortedWeights[slot] = weights[e];
+				}
+			}
+			return new CsrGraph<>(vertices, indexer, offsets, sortedTargets, sortedWeights, edgeType);
+		}
+
+		private void checkVertex(int vertex) {
+			if (vertex < 0 || vertex >= numVertices) {
+				throw new IllegalArgumentException("Vertex " + vertex + " isn't between 0 and " + (numVertices - 1));
+			}
+		}
+
+		private void append(int from, int to, long weight) {
+			if (numEdges == sources.length) {
+				int capacity = sources.length << 1;
+				if (capacity < 0) {
+					throw new IllegalStateException("A CsrGraph can't have more than " + numEdges + " edges");
+				}
+				sources = Arrays.copyOf(sources, capacity);
+				targets = Arrays.copyOf(targets, capacity);
+				if (weighted) {
+					weights = Arrays.copyOf(weights, capacity);
+				}
+			}
+			sources[numEdges] = from;
+			targets[numEdges] = to;
+			if (weighted) {
+				weights[numEdges] = weight;
+			}
+			numEdges++;
+		}
+	}
+
+	/**
+	 * The vertices 0 to n - 1, without boxing any until they're asked for.  Static, so a graph built by
+	 * a {@link Builder} doesn't hold on to the builder's arrays
+	 */
+	private static final class IntegerVertices extends AbstractList<Integer> {
+
+		private final int n;
+
+		IntegerVertices(int n) {
+			this.n = n;
+		}
+
+		@Override
+		public Integer get(int index) {
+			if (index < 0 || index >= n) {
+				throw new IndexOutOfBoundsException("Vertex " + index + " of " + n);
+			}
+			return index;
+		}
+
+		@Override
+		public int size() {
+			return n;
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+package org.ryebread.algorithmplayground.structures.heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.ryebread.algorithmplayground.exceptions.EmptyHeapException;
+
+/**
+ * A min-priority queue over the ids 0 to capacity - 1, each with a long priority, that can find any id
+ * in O(1) and so change or remove it in O(log n).
+ *
+ * A plain heap can only find an arbitrary element by scanning for it, which turns the decrease-key
+ * of Prim's and Dijkstra's algorithms into an O(n) remove and re-add.  Here `positions[id]` tracks
+ * where every id sits in the heap, and is kept up to date by the sifts.
+ *
+ * The heap is 4-ary, as in {@link IntHeap}: the graph algorithms decrease keys far more often than
+ * they pop, and a shallower heap shortens every sift up.  Priorities are stored in heap order next to
+ * the ids, so sifting never has to follow an id out to read its priority.
+ *
+ * @author Ryan
+ */
+public final class IndexedMinHeap implements IndexedPriorityQueue {
+
+	private static final int SHIFT = 2;
+
+	/*
+	 * ids[i] is the id at heap position i, and priorities[i] its priority
+	 */
+	private final int ids[];
+	private final long priorities[];
+
+	/*
+	 * positions[id] is where `id` is in the heap, or -1 if it isn't
+	 */
+	private final int positions[];
+	private int size;
+
+	public IndexedMinHeap(int capacity) {
+		this.ids = new int[capacity];
+		this.priorities = new long[capacity];
+		this.positions = new int[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	@Override
+	public void insert(int id, long priority) {
+		if (positions[id] >= 0) {
+			throw new IllegalArgumentException("Id " + id + " is already in the heap");
+		}
+		siftUp(size++, id, priority);
+	}
+
+	@Override
+	public boolean contains(int id) {
+		return positions[id] >= 0;
+	}
+
+	@Override
+	public long priorityOf(int id) {
+		return priorities[position(id)];
+	}
+
+	@Override
+	public void decreaseKey(int id, long priority) {
+		int position = position(id);
+		if (priority > priorities[position]) {
+			throw new IllegalArgumentException(
+					"Priority " + priority + " is greater than id " + id + "'s priority of " + priorities[position]);
+		}
+		siftUp(position, id, priority);
+	}
+
+	/**
+	 * Set the priority of an id, whether that raises it, lowers it, or inserts the id
+	 */
+	public void update(int id, long priority) {
+		int position = positions[id];
+		if (position < 0) {
+			insert(id, priority);
+		} else if (priority <= priorities[position]) {
+			siftUp(position, id, priority);
+		} else {
+			siftDown(position, id, priority);
+		}
+	}
+
+	@Override
+	public int peek() {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		return ids[0];
+	}
+
+	@Override
+	public long peekPriority() {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		return priorities[0];
+	}
+
+	@Override
+	public int pop() {
+		int id = peek();
+		remove(id);
+		return id;
+	}
+
+	/**
+	 * Remove an id from anywhere in the heap.  The last element takes its place, and moves whichever
+	 * way its priority calls for
+	 */
+	@Override
+	public void remove(int id) {
+		int position = position(id);
+		positions[id] = -1;
+		size--;
+		if (position == size) {
+			return;
+		}
+		int lastId = ids[size];
+		long lastPriority = priorities[size];
+		if (lastPriority < priorities[position]) {
+			siftUp(position, lastId, lastPriority);
+		} else {
+			siftDown(position, lastId, lastPriority);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private int position(int id) {
+		int position = positions[id];
+		if (position < 0) {
+			throw new NoSuchElementException("Id " + id + " is not in the heap");
+		}
+		return position;
+	}
+
+	/**
+	 * Place `id` at `index` or above, moving down every parent with a greater priority
+	 */
+	private void siftUp(int index, int id, long priority) {
+		while (index > 0) {
+			int parent = (index - 1) >>> SHIFT;
+			if (priorities[parent] <= priority) {
+				break;
+			}
+			move(parent, index);
+			index = parent;
+		}
+		place(index, id, priority);
+	}
+
+	/**
+	 * Place `id` at `index` or below, moving up every smallest child with a lesser priority
+	 */
+	private void siftDown(int index, int id, long priority) {
+		int lastParent = (size - 2) >> SHIFT;
+		while (index <= lastParent) {
+			int firstChild = (index << SHIFT) + 1;
+			int lastChild = Math.min(firstChild + (1 << SHIFT), size);
+			int smallest = firstChild;
+			for (int child = firstChild + 1; child < lastChild; child++) {
+				if (priorities[child] < priorities[smallest]) {
+					smallest = child;
+				}
+			}
+			if (priority <= priorities[smallest]) {
+				break;
+			}
+			move(smallest, index);
+			index = smallest;
+		}
+		place(index, id, priority);
+	}
+
+	private void move(int from, int to) {
+		ids[to] = ids[from];
+		priorities[to] = priorities[from];
+		positions[ids[to]] = to;
+	}
+
+	private void place(int index, int id, long priority) {
+		ids[index] = id;
+		priorities[index] = priority;
+		positions[id] = index;
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.ryebread.algorithmplayground.structures.heap;
+
+/**
+ * A min-priority queue over the ids 0 to capacity - 1, each with a long priority, that can find any id
+ * it holds in O(1) and lower its priority in place.  Priorities are compared as plain longs; ties come
+ * out in no particular order.
+ *
+ * - {@link IndexedMinHeap}: a 4-ary array heap, O(log n) for everything
+ * - {@link PairingHeap}: O(1) insert and meld, amortized O(log n) pop, and decrease-key cheaper in
+ *   practice than either of the others'
+ * - {@link RadixHeap}: O(1) insert and decrease-key and amortized O(log C) pop, but only for
+ *   monotone workloads that never insert below the last priority popped, such as Dijkstra's
+ *
+ * @author Ryan
+ */
+public interface IndexedPriorityQueue {
+
+	public void insert(int id, long priority);
+
+	public boolean contains(int id);
+
+	public long priorityOf(int id);
+
+	/**
+	 * Lower the priority of an id already in the queue
+	 * @throws IllegalArgumentException if `priority` is greater than the id's current priority
+	 */
+	public void decreaseKey(int id, long priority);
+
+	public void remove(int id);
+
+	/**
+	 * @return the id with the lowest priority
+	 */
+	public int peek();
+
+	public long peekPriority();
+
+	/**
+	 * Remove the id with the lowest priority
+	 * @return that id
+	 */
+	public int pop();
+
+	public int size();
+
+	public boolean isEmpty();
+
+}
@@ -0,0 +1,181 @@
+package org.ryebread.algorithmplayground.structures.heap;
+
+import java.util.Arrays;
+
+import org.ryebread.algorithmplayground.exceptions.EmptyHeapException;
+
+/**
+ * A d-ary heap of primitive ints, in either min or max order.
+ *
+ * Every node has `arity` children rather than two: node i's children are i * arity + 1 through
+ * i * arity + arity, and its parent is (i - 1) / arity.  A wider heap is shallower, so a push climbs
+ * fewer levels, and a pop sifts down fewer levels -- each of which compares a node's children against
+ * each other, but they sit next to each other in memory.  With arity 4 a node's children share a
+ * cache line, and on heaps too large for the cache the saved misses outweigh the extra comparisons.
+ *
+ * A max-heap stores its elements bitwise complemented.  ~x reverses the order of ints without
+ * overflowing, so min and max heaps share the same sifts and comparisons, and the order costs nothing
+ * per comparison.  Elements are complemented on the way in and out.
+ *
+ * Both sifts move a "hole" rather than swapping: the element being placed is held aside, and whatever
+ * it passes is moved into the hole, so each level costs one write instead of a swap.
+ *
+ * @author Ryan
+ */
+public final class IntHeap {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private final int shift;
+	private final int flip;
+	private int tree[];
+	private int size;
+
+	private IntHeap(int arity, boolean max, int[] tree, int size) {
+		if (arity != 2 && arity != 4 && arity != 8) {
+			throw new IllegalArgumentException("arity must be 2, 4 or 8, not " + arity);
+		}
+		this.shift = Integer.numberOfTrailingZeros(arity);
+		this.flip = max ? ~0 : 0;
+		this.tree = tree;
+		this.size = size;
+	}
+
+	public static IntHeap min(int arity) {
+		return new IntHeap(arity, false, new int[DEFAULT_CAPACITY], 0);
+	}
+
+	public static IntHeap max(int arity) {
+		return new IntHeap(arity, true, new int[DEFAULT_CAPACITY], 0);
+	}
+
+	/**
+	 * A min-heap of a copy of `elements`, built bottom up in O(n)
+	 */
+	public static IntHeap min(int arity, int[] elements) {
+		return heapify(new IntHeap(arity, false, elements.clone(), elements.length));
+	}
+
+	public static IntHeap max(int arity, int[] elements) {
+		IntHeap heap = new IntHeap(arity, true, elements.clone(), elements.length);
+		for (int i = 0; i < heap.size; i++) {
+			heap.tree[i] = ~heap.tree[i];
+		}
+		return heapify(heap);
+	}
+
+	private static IntHeap heapify(IntHeap heap) {
+		for (int i = (heap.size - 2) >> heap.shift; i >= 0; i--) {
+			heap.siftDown(i, heap.tree[i]);
+		}
+		return heap;
+	}
+
+	public void push(int element) {
+		if (size == tree.length) {
+			tree = Arrays.copyOf(tree, Math.max(DEFAULT_CAPACITY, tree.length << 1));
+		}
+		siftUp(size++, element ^ flip);
+	}
+
+	public int pop() {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		int root = tree[0];
+		int last = tree[--size];
+		if (size > 0) {
+			siftDown(0, last);
+		}
+		return root ^ flip;
+	}
+
+	public int peek() {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		return tree[0] ^ flip;
+	}
+
+	/**
+	 * Pop the root and push `element` in one go, with a single sift down
+	 * @return the old root
+	 */
+	public int replaceTop(int element) {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		int root = tree[0];
+		siftDown(0, element ^ flip);
+		return root ^ flip;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @return a copy of the elements, in heap order
+	 */
+	public int[] toArray() {
+		int elements[] = Arrays.copyOf(tree, size);
+		if (flip != 0) {
+			for (int i = 0; i < size; i++) {
+				elements[i] = ~elements[i];
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * Move `element` up from `index` past every parent greater than it
+	 */
+	private void siftUp(int index, int element) {
+		while (index > 0) {
+			int parent = (index - 1) >>> shift;
+			int parentElement = tree[parent];
+			if (parentElement <= element) {
+				break;
+			}
+			tree[index] = parentElement;
+			index = parent;
+		}
+		tree[index] = element;
+	}
+
+	/**
+	 * Move `element` down from `index` past every smallest child less than it
+	 */
+	private void siftDown(int index, int element) {
+		// Comparing against the last parent, rather than the first child against the size, keeps the
+		// child index from overflowing on heaps past 2^28 elements
+		int lastParent = (size - 2) >> shift;
+		while (index <= lastParent) {
+			int firstChild = (index << shift) + 1;
+			int lastChild = Math.min(firstChild + (1 << shift), size);
+			int smallest = firstChild;
+			int smallestElement = tree[firstChild];
+			for (int child = firstChild + 1; child < lastChild; child++) {
+				if (tree[child] < smallestElement) {
+					smallest = child;
+					smallestElement = tree[child];
+				}
+			}
+			if (element <= smallestElement) {
+				break;
+			}
+			tree[index] = smallestElement;
+			index = smallest;
+		}
+		tree[index] = element;
+	}
+
+}
@@ -0,0 +1,228 @@
+package org.ryebread.algorithmplayground.structures.heap;
+
+import java.nio.BufferOverflowException;
+import java.nio.LongBuffer;
+
+import org.ryebread.algorithmplayground.exceptions.EmptyHeapException;
+
+/**
+ * A d-ary heap laid out in place over a caller's long[] or {@link LongBuffer}, rather than over an
+ * array of its own.  Nothing is copied: the view heap-orders the elements where they already are,
+ * and reads and writes them there.  A direct or memory-mapped buffer can be heap ordered or sorted
+ * without its elements ever being copied onto the Java heap.
+ *
+ * The heap takes up the start of the buffer's remaining elements, from its position, and can grow as
+ * far as its limit.  The buffer's position and limit are never changed.  A pop moves the old root into
+ * the slot the heap has just given up, so popping a max-heap view empty leaves its elements in
+ * ascending order, which is exactly what {@link #sort} does.
+ *
+ * Elements are stored as they are, since the buffer belongs to the caller, so unlike {@link LongHeap}
+ * a max view can't complement its elements.  It complements them as it reads them and again as it
+ * writes them back, which gives the same min-heap sifts for both orders.
+ *
+ * @author Ryan
+ */
+public final class LongHeapView {
+
+	/*
+	 * 4-ary, as a heap sort over a buffer too big for the cache spends most of its time on misses
+	 */
+	private static final int SORT_SHIFT = 2;
+
+	private final LongBuffer buffer;
+	private final int base;
+	private final int capacity;
+	private final int shift;
+	private final long flip;
+	private int size;
+
+	private LongHeapView(int arity, boolean max, LongBuffer buffer, int size) {
+		if (arity != 2 && arity != 4 && arity != 8) {
+			throw new IllegalArgumentException("arity must be 2, 4 or 8, not " + arity);
+		}
+		if (size < 0 || size > buffer.remaining()) {
+			throw new IllegalArgumentException(
+					"size must be between 0 and the buffer's " + buffer.remaining() + " remaining elements, not " + size);
+		}
+		this.buffer = buffer;
+		this.base = buffer.position();
+		this.capacity = buffer.remaining();
+		this.shift = Integer.numberOfTrailingZeros(arity);
+		this.flip = max ? ~0 : 0;
+		this.size = size;
+		heapify(buffer, base, size, shift, flip);
+	}
+
+	/**
+	 * A min-heap over all of the buffer's remaining elements, heap ordered in place in O(n)
+	 */
+	public static LongHeapView min(int arity, LongBuffer buffer) {
+		return new LongHeapView(arity, false, buffer, buffer.remaining());
+	}
+
+	/**
+	 * A min-heap over the first `size` of the buffer's remaining elements, with the rest free for it to
+	 * grow into
+	 */
+	public static LongHeapView min(int arity, LongBuffer buffer, int size) {
+		return new LongHeapView(arity, false, buffer, size);
+	}
+
+	public static LongHeapView max(int arity, LongBuffer buffer) {
+		return new LongHeapView(arity, true, buffer, buffer.remaining());
+	}
+
+	public static LongHeapView max(int arity, LongBuffer buffer, int size) {
+		return new LongHeapView(arity, true, buffer, size);
+	}
+
+	public static LongHeapView min(int arity, long[] elements) {
+		return min(arity, LongBuffer.wrap(elements));
+	}
+
+	public static LongHeapView max(int arity, long[] elements) {
+		return max(arity, LongBuffer.wrap(elements));
+	}
+
+	/**
+	 * Heap sort the buffer's remaining elements into ascending order, in place and without allocating
+	 * anything
+	 */
+	public static void sort(LongBuffer buffer) {
+		int base = buffer.position();
+		int n = buffer.remaining();
+		heapify(buffer, base, n, SORT_SHIFT, ~0);
+		for (int size = n - 1; size > 0; size--) {
+			long root = buffer.get(base);
+			long last = buffer.get(base + size);
+			buffer.put(base + size, root);
+			siftDown(buffer, base, size, SORT_SHIFT, ~0, 0, ~last);
+		}
+	}
+
+	/**
+	 * Heap sort an array in place.  The only allocation is the buffer that wraps it
+	 */
+	public static void sort(long[] elements) {
+		sort(LongBuffer.wrap(elements));
+	}
+
+	/**
+	 * @throws BufferOverflowException if the heap has already grown to the buffer's limit
+	 */
+	public void push(long element) {
+		if (size == capacity) {
+			throw new BufferOverflowException();
+		}
+		siftUp(buffer, base, shift, flip, size++, element ^ flip);
+	}
+
+	/**
+	 * Remove the root, leaving it in the slot just past the end of the shrunken heap
+	 */
+	public long pop() {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		long root = buffer.get(base);
+		long last = buffer.get(base + --size);
+		buffer.put(base + size, root);
+		if (size > 0) {
+			siftDown(buffer, base, size, shift, flip, 0, last ^ flip);
+		}
+		return root;
+	}
+
+	public long peek() {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		return buffer.get(base);
+	}
+
+	/**
+	 * Pop the root and push `element` in one go, with a single sift down
+	 * @return the old root
+	 */
+	public long replaceTop(long element) {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		long root = buffer.get(base);
+		siftDown(buffer, base, size, shift, flip, 0, element ^ flip);
+		return root;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return how many elements the heap can hold, from the buffer's position to its limit
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public LongBuffer getBuffer() {
+		return buffer;
+	}
+
+	/*
+	 * The sifts are static, taking the heap's layout as arguments, so that sort() can run them without
+	 * creating a view.  They work on keys, which are the elements xor `flip`
+	 */
+
+	private static void heapify(LongBuffer buffer, int base, int size, int shift, long flip) {
+		for (int i = (size - 2) >> shift; i >= 0; i--) {
+			siftDown(buffer, base, size, shift, flip, i, buffer.get(base + i) ^ flip);
+		}
+	}
+
+	/**
+	 * Move `key` up from `index` past every parent greater than it
+	 */
+	private static void siftUp(LongBuffer buffer, int base, int shift, long flip, int index, long key) {
+		while (index > 0) {
+			int parent = (index - 1) >>> shift;
+			long parentKey = buffer.get(base + parent) ^ flip;
+			if (parentKey <= key) {
+				break;
+			}
+			buffer.put(base + index, parentKey ^ flip);
+			index = parent;
+		}
+		buffer.put(base + index, key ^ flip);
+	}
+
+	/**
+	 * Move `key` down from `index` past every smallest child less than it
+	 */
+	private static void siftDown(LongBuffer buffer, int base, int size, int shift, long flip, int index, long key) {
+		int lastParent = (size - 2) >> shift;
+		while (index <= lastParent) {
+			int firstChild = (index << shift) + 1;
+			int lastChild = Math.min(firstChild + (1 << shift), size);
+			int smallest = firstChild;
+			long smallestKey = buffer.get(base + firstChild) ^ flip;
+			for (int child = firstChild + 1; child < lastChild; child++) {
+				long childKey = buffer.get(base + child) ^ flip;
+				if (childKey < smallestKey) {
+					smallest = child;
+					smallestKey = childKey;
+				}
+			}
+			if (key <= smallestKey) {
+				break;
+			}
+			buffer.put(base + index, smallestKey ^ flip);
+			index = smallest;
+		}
+		buffer.put(base + index, key ^ flip);
+	}
+
+}
@@ -0,0 +1,169 @@
+package org.ryebread.algorithmplayground.structures.heap;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent, relaxed min-priority queue of primitive longs: a MultiQueue.
+ *
+ * A single heap behind a single lock makes every thread wait its turn, however many there are.  This
+ * splits the queue into `shardsPerThread` times as many {@link LongHeap}s as there are threads, each
+ * with its own lock.  A push goes to a random shard.  A pop looks at the least elements of two
+ * different random shards and takes the lesser of the two.  With that many shards, two threads rarely
+ * want the same lock, and a thread that does find one taken just tries another pair rather than
+ * waiting.
+ *
+ * The price is that a pop is only roughly the least element: it's the least of two shards, not of
+ * all of them.  In practice it's among the least c * P or so, which is close enough for the work
+ * lists of parallel algorithms that can tolerate some out-of-order work, like label-correcting
+ * shortest paths or a job scheduler.  Elements are plain longs so that a priority and a payload can
+ * be packed into one, e.g. a distance in the high 32 bits and a vertex in the low 32.
+ *
+ * Each shard publishes its least element through a volatile field, so choosing between two shards
+ * reads them without taking either lock.
+ *
+ * @author Ryan
+ */
+public final class LongMultiQueue {
+
+	private static final int ARITY = 4;
+	private static final int DEFAULT_SHARDS_PER_THREAD = 2;
+
+	private final Shard shards[];
+
+	public LongMultiQueue(int threads) {
+		this(threads, DEFAULT_SHARDS_PER_THREAD);
+	}
+
+	public LongMultiQueue(int threads, int shardsPerThread) {
+		if (threads < 1 || shardsPerThread < 1) {
+			throw new IllegalArgumentException(
+					"threads and shardsPerThread must be positive, not " + threads + " and " + shardsPerThread);
+		}
+		// Two random picks need at least two shards to choose between
+		shards = new Shard[Math.max(2, threads * shardsPerThread)];
+		for (int s = 0; s < shards.length; s++) {
+			shards[s] = new Shard();
+		}
+	}
+
+	public void push(long element) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (true) {
+			Shard shard = shards[random.nextInt(shards.length)];
+			if (shard.lock.tryLock()) {
+				try {
+					shard.heap.push(element);
+					shard.publish();
+				} finally {
+					shard.lock.unlock();
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Remove roughly the least element: the lesser of the least elements of two different random shards
+	 * @return the element, or empty if the queue was empty
+	 */
+	public OptionalLong poll() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		// Give up on random picks after finding this many empty shards, and check every shard at once
+		int misses = 0;
+		while (misses < shards.length) {
+			int pick = random.nextInt(shards.length);
+			Shard first = shards[pick];
+			Shard second = shards[(pick + 1 + random.nextInt(shards.length - 1)) % shards.length];
+			Shard better = second.size > 0 && (first.size == 0 || second.least < first.least) ? second : first;
+			if (better.size == 0) {
+				misses++;
+				continue;
+			}
+			if (better.lock.tryLock()) {
+				try {
+					if (!better.heap.isEmpty()) {
+						return OptionalLong.of(pop(better));
+					}
+					// Another thread emptied it between the check and the lock
+					misses++;
+				} finally {
+					better.lock.unlock();
+				}
+			}
+		}
+		return pollLocked();
+	}
+
+	/**
+	 * Lock every shard, always in the same order, and pop the least element of them all.  Checking the
+	 * shards one lock at a time could miss an element pushed to a shard already checked while another
+	 * thread popped the last element of one not yet reached
+	 */
+	private OptionalLong pollLocked() {
+		int locked = 0;
+		try {
+			Shard least = null;
+			for (Shard shard : shards) {
+				shard.lock.lock();
+				locked++;
+				if (!shard.heap.isEmpty() && (least == null || shard.heap.peek() < least.heap.peek())) {
+					least = shard;
+				}
+			}
+			return least == null ? OptionalLong.empty() : OptionalLong.of(pop(least));
+		} finally {
+			for (int s = 0; s < locked; s++) {
+				shards[s].lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of elements, which other threads may change before it's even returned
+	 */
+	public int size() {
+		int size = 0;
+		for (Shard shard : shards) {
+			size += shard.size;
+		}
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Pop a shard's least element.  Must hold its lock
+	 */
+	private static long pop(Shard shard) {
+		long element = shard.heap.pop();
+		shard.publish();
+		return element;
+	}
+
+	private static final class Shard {
+
+		private final ReentrantLock lock = new ReentrantLock();
+		private final LongHeap heap = LongHeap.min(ARITY);
+
+		/*
+		 * Copies of the heap's size and least element, for picking a shard without its lock
+		 */
+		private volatile int size;
+		private volatile long least;
+
+		/**
+		 * Publish the heap's size and least element after changing it.  Must hold the lock
+		 */
+		private void publish() {
+			if (!heap.isEmpty()) {
+				least = heap.peek();
+			}
+			size = heap.size();
+		}
+	}
+
+}
@@ -0,0 +1,289 @@
+package org.ryebread.algorithmplayground.structures.heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.ryebread.algorithmplayground.exceptions.EmptyHeapException;
+
+/**
+ * An indexed pairing heap: a heap-ordered tree of any shape, where melding two trees just hangs the
+ * root with the greater priority under the other.
+ *
+ * Inserting an id melds it in as a tree of one, and lowering an id's priority cuts its subtree loose
+ * and melds it back in at the root, both in O(1).  All the real work is put off until a pop, which
+ * melds the root's children back into one tree in two passes: pairwise left to right, then each pair
+ * into the last right to left.  That makes a pop O(log n) amortized, and leaves the tree flatter for
+ * the pops after it.
+ *
+ * The tree is held in arrays indexed by id rather than in node objects.  Each id points to its first
+ * child and its next sibling, and back to whichever of the two points to it: its parent if it's a
+ * first child, its previous sibling if not.
+ *
+ * @author Ryan
+ */
+public final class PairingHeap implements IndexedPriorityQueue {
+
+	private static final int NONE = -1;
+
+	private final long priorities[];
+	private final int children[];
+	private final int siblings[];
+	private final int previous[];
+	private final boolean contained[];
+
+	/*
+	 * The roots of the subtrees being paired up in a pop
+	 */
+	private final int pairs[];
+
+	private int root = NONE;
+	private int size;
+
+	public PairingHeap(int capacity) {
+		this.priorities = new long[capacity];
+		this.children = new int[capacity];
+		this.siblings = new int[capacity];
+		this.previous = new int[capacity];
+		this.contained = new boolean[capacity];
+		this.pairs = new int[capacity];
+		Arrays.fill(children, NONE);
+		Arrays.fill(siblings, NONE);
+		Arrays.fill(previous, NONE);
+	}
+
+	/**
+	 * Move every id of `other` into this heap, leaving `other` empty.  The two heaps must have the same
+	 * capacity and no ids in common.  The two trees are linked in O(1), but as each heap keeps its
+	 * nodes in its own arrays, the m ids of `other` are copied across in O(m)
+	 */
+	public void meld(PairingHeap other) {
+		if (other.priorities.length != priorities.length) {
+			throw new IllegalArgumentException("Can't meld heaps with capacities " + priorities.length
+					+ " and " + other.priorities.length);
+		}
+		if (other.root == NONE) {
+			return;
+		}
+		int shared = sharedId(other);
+		if (shared != NONE) {
+			throw new IllegalArgumentException("Id " + shared + " is in both heaps");
+		}
+		// Walk the other tree depth first, using its pairs array as the stack
+		int stack[] = other.pairs;
+		int depth = 0;
+		stack[depth++] = other.root;
+		while (depth > 0) {
+			int id = stack[--depth];
+			for (int child = other.children[id]; child != NONE; child = other.siblings[child]) {
+				stack[depth++] = child;
+			}
+			contained[id] = true;
+			priorities[id] = other.priorities[id];
+			children[id] = other.children[id];
+			siblings[id] = other.siblings[id];
+			previous[id] = other.previous[id];
+			other.contained[id] = false;
+			other.children[id] = NONE;
+			other.siblings[id] = NONE;
+			other.previous[id] = NONE;
+		}
+		root = root == NONE ? other.root : link(root, other.root);
+		size += other.size;
+		other.root = NONE;
+		other.size = 0;
+	}
+
+	@Override
+	public void insert(int id, long priority) {
+		if (contained[id]) {
+			throw new IllegalArgumentException("Id " + id + " is already in the heap");
+		}
+		contained[id] = true;
+		priorities[id] = priority;
+		root = root == NONE ? id : link(root, id);
+		size++;
+	}
+
+	@Override
+	public boolean contains(int id) {
+		return contained[id];
+	}
+
+	@Override
+	public long priorityOf(int id) {
+		checkContained(id);
+		return priorities[id];
+	}
+
+	@Override
+	public void decreaseKey(int id, long priority) {
+		checkContained(id);
+		if (priority > priorities[id]) {
+			throw new IllegalArgumentException(
+					"Priority " + priority + " is greater than id " + id + "'s priority of " + priorities[id]);
+		}
+		priorities[id] = priority;
+		if (id != root) {
+			cut(id);
+			root = link(root, id);
+		}
+	}
+
+	@Override
+	public int peek() {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		return root;
+	}
+
+	@Override
+	public long peekPriority() {
+		return priorities[peek()];
+	}
+
+	@Override
+	public int pop() {
+		int id = peek();
+		root = mergePairs(children[id]);
+		children[id] = NONE;
+		contained[id] = false;
+		size--;
+		return id;
+	}
+
+	/**
+	 * Remove an id from anywhere in the heap.  Its children are paired up as in a pop, and the tree
+	 * they make is melded back in at the root
+	 */
+	@Override
+	public void remove(int id) {
+		checkContained(id);
+		if (id == root) {
+			pop();
+			return;
+		}
+		cut(id);
+		int subtree = mergePairs(children[id]);
+		children[id] = NONE;
+		contained[id] = false;
+		size--;
+		if (subtree != NONE) {
+			root = link(root, subtree);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(contained, false);
+		Arrays.fill(children, NONE);
+		Arrays.fill(siblings, NONE);
+		Arrays.fill(previous, NONE);
+		root = NONE;
+		size = 0;
+	}
+
+	/**
+	 * @return an id in both this heap and `other`, or NONE if there isn't one
+	 */
+	private int sharedId(PairingHeap other) {
+		int stack[] = other.pairs;
+		int depth = 0;
+		stack[depth++] = other.root;
+		while (depth > 0) {
+			int id = stack[--depth];
+			if (contained[id]) {
+				return id;
+			}
+			for (int child = other.children[id]; child != NONE; child = other.siblings[child]) {
+				stack[depth++] = child;
+			}
+		}
+		return NONE;
+	}
+
+	private void checkContained(int id) {
+		if (!contained[id]) {
+			throw new NoSuchElementException("Id " + id + " is not in the heap");
+		}
+	}
+
+	/**
+	 * Hang whichever of two roots has the greater priority under the other, as its first child
+	 * @return the root of the combined tree
+	 */
+	private int link(int a, int b) {
+		if (priorities[b] < priorities[a]) {
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		int firstChild = children[a];
+		siblings[b] = firstChild;
+		if (firstChild != NONE) {
+			previous[firstChild] = b;
+		}
+		previous[b] = a;
+		children[a] = b;
+		return a;
+	}
+
+	/**
+	 * Detach the subtree under a non-root id from its parent, leaving it a root of its own
+	 */
+	private void cut(int id) {
+		int before = previous[id];
+		int after = siblings[id];
+		if (children[before] == id) {
+			children[before] = after;
+		} else {
+			siblings[before] = after;
+		}
+		if (after != NONE) {
+			previous[after] = before;
+		}
+		siblings[id] = NONE;
+		previous[id] = NONE;
+	}
+
+	/**
+	 * Meld a list of sibling subtrees into one tree: link them in pairs left to right, then link each
+	 * pair into the last one right to left
+	 * @return the root of the tree, or NONE if the list was empty
+	 */
+	private int mergePairs(int first) {
+		if (first == NONE) {
+			return NONE;
+		}
+		int count = 0;
+		int next = first;
+		while (next != NONE) {
+			int a = next;
+			int b = siblings[a];
+			next = b == NONE ? NONE : siblings[b];
+			siblings[a] = NONE;
+			previous[a] = NONE;
+			if (b != NONE) {
+				siblings[b] = NONE;
+				previous[b] = NONE;
+				a = link(a, b);
+			}
+			pairs[count++] = a;
+		}
+		int tree = pairs[--count];
+		while (count > 0) {
+			tree = link(pairs[--count], tree);
+		}
+		return tree;
+	}
+
+}
@@ -0,0 +1,221 @@
+package org.ryebread.algorithmplayground.structures.heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.ryebread.algorithmplayground.exceptions.EmptyHeapException;
+
+/**
+ * An indexed radix heap, for monotone workloads: priorities are non-negative, and nothing is ever
+ * inserted or decreased below the last priority popped.  Dijkstra's algorithm with non-negative edge
+ * weights is one, and so is a k-way merge of sorted runs.
+ *
+ * Rather than keeping its ids in order, the heap only sorts them into 65 buckets by how far their
+ * priority is from the last one popped: bucket 0 holds the ids equal to it, and bucket b those whose
+ * highest bit different from it is bit b - 1.  Inserting an id or lowering its priority just puts it
+ * in the right bucket, in O(1).  A pop takes from bucket 0, and if that's empty, finds the least
+ * priority in the first bucket that isn't, makes that the new last priority, and spreads the bucket's
+ * ids out over the buckets below.  Every id can only move down, at most 64 times, so a pop is
+ * O(log C) amortized for priorities below C, with no comparisons between ids at all.
+ *
+ * Each bucket is a pair of arrays that grow as needed, holding its ids and their priorities side by
+ * side so that emptying a bucket reads both straight through.  Every id knows its bucket and its place
+ * in it, so moving an id out of a bucket is a swap with the bucket's last element.
+ *
+ * @author Ryan
+ */
+public final class RadixHeap implements IndexedPriorityQueue {
+
+	private static final int BUCKETS = Long.SIZE + 1;
+	private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+	/*
+	 * bucketOf[id] is the bucket `id` is in, or -1 if it isn't in the heap, and slotOf[id] its index in
+	 * that bucket
+	 */
+	private final byte bucketOf[];
+	private final int slotOf[];
+
+	private final int buckets[][] = new int[BUCKETS][];
+	private final long bucketPriorities[][] = new long[BUCKETS][];
+	private final int bucketSizes[] = new int[BUCKETS];
+
+	private long last;
+	private int size;
+
+	public RadixHeap(int capacity) {
+		this.bucketOf = new byte[capacity];
+		this.slotOf = new int[capacity];
+		Arrays.fill(bucketOf, (byte) -1);
+		for (int b = 0; b < BUCKETS; b++) {
+			buckets[b] = new int[INITIAL_BUCKET_CAPACITY];
+			bucketPriorities[b] = new long[INITIAL_BUCKET_CAPACITY];
+		}
+	}
+
+	/**
+	 * @return the last priority popped, below which nothing can be inserted
+	 */
+	public long getLast() {
+		return last;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if `priority` is below the last priority popped
+	 */
+	@Override
+	public void insert(int id, long priority) {
+		if (bucketOf[id] >= 0) {
+			throw new IllegalArgumentException("Id " + id + " is already in the heap");
+		}
+		checkMonotone(priority);
+		add(id, priority, bucket(priority));
+		size++;
+	}
+
+	@Override
+	public boolean contains(int id) {
+		return bucketOf[id] >= 0;
+	}
+
+	@Override
+	public long priorityOf(int id) {
+		checkContained(id);
+		return bucketPriorities[bucketOf[id]][slotOf[id]];
+	}
+
+	/**
+	 * @throws IllegalArgumentException if `priority` is below the last priority popped
+	 */
+	@Override
+	public void decreaseKey(int id, long priority) {
+		long current = priorityOf(id);
+		if (priority > current) {
+			throw new IllegalArgumentException(
+					"Priority " + priority + " is greater than id " + id + "'s priority of " + current);
+		}
+		checkMonotone(priority);
+		int bucket = bucket(priority);
+		if (bucket == bucketOf[id]) {
+			bucketPriorities[bucket][slotOf[id]] = priority;
+		} else {
+			take(id);
+			add(id, priority, bucket);
+		}
+	}
+
+	@Override
+	public int peek() {
+		if (size == 0) {
+			throw new EmptyHeapException();
+		}
+		if (bucketSizes[0] == 0) {
+			redistribute();
+		}
+		return buckets[0][0];
+	}
+
+	@Override
+	public long peekPriority() {
+		peek();
+		return last;
+	}
+
+	@Override
+	public int pop() {
+		int id = peek();
+		take(id);
+		size--;
+		return id;
+	}
+
+	@Override
+	public void remove(int id) {
+		checkContained(id);
+		take(id);
+		size--;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private void checkContained(int id) {
+		if (bucketOf[id] < 0) {
+			throw new NoSuchElementException("Id " + id + " is not in the heap");
+		}
+	}
+
+	private void checkMonotone(long priority) {
+		if (priority < last) {
+			throw new IllegalArgumentException(
+					"Priority " + priority + " is below the last priority popped, " + last);
+		}
+	}
+
+	/**
+	 * @return 0 if `priority` is the last priority popped, or one more than the index of the highest
+	 * bit where they differ
+	 */
+	private int bucket(long priority) {
+		return Long.SIZE - Long.numberOfLeadingZeros(priority ^ last);
+	}
+
+	/**
+	 * Empty the first non-empty bucket, making its least priority the last popped and moving every id
+	 * in it down to the bucket that priority now puts it in.  Those with the least priority all land
+	 * in bucket 0
+	 */
+	private void redistribute() {
+		int b = 1;
+		while (bucketSizes[b] == 0) {
+			b++;
+		}
+		int ids[] = buckets[b];
+		long priorities[] = bucketPriorities[b];
+		int count = bucketSizes[b];
+		long least = priorities[0];
+		for (int i = 1; i < count; i++) {
+			least = Math.min(least, priorities[i]);
+		}
+		last = least;
+		bucketSizes[b] = 0;
+		for (int i = 0; i < count; i++) {
+			add(ids[i], priorities[i], bucket(priorities[i]));
+		}
+	}
+
+	private void add(int id, long priority, int b) {
+		int count = bucketSizes[b];
+		if (count == buckets[b].length) {
+			buckets[b] = Arrays.copyOf(buckets[b], count << 1);
+			bucketPriorities[b] = Arrays.copyOf(bucketPriorities[b], count << 1);
+		}
+		buckets[b][count] = id;
+		bucketPriorities[b][count] = priority;
+		bucketSizes[b] = count + 1;
+		bucketOf[id] = (byte) b;
+		slotOf[id] = count;
+	}
+
+	/**
+	 * Take an id out of its bucket, moving the bucket's last id into its slot
+	 */
+	private void take(int id) {
+		int b = bucketOf[id];
+		int slot = slotOf[id];
+		int lastSlot = --bucketSizes[b];
+		int moved = buckets[b][lastSlot];
+		buckets[b][slot] = moved;
+		bucketPriorities[b][slot] = bucketPriorities[b][lastSlot];
+		slotOf[moved] = slot;
+		bucketOf[id] = -1;
+	}
+
+}
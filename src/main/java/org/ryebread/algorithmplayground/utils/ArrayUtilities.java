@@ -20,4 +20,54 @@ public class ArrayUtilities {
 		ary[j] = elem;
 	}
 
+	/**
+	 * Swap elements of a primitive int array
+	 * @param ary
+	 * @param i
+	 * @param j
+	 */
+	public static final void swap(int[] ary, int i, int j) {
+		int elem = ary[i];
+		ary[i] = ary[j];
+		ary[j] = elem;
+	}
+
+	/**
+	 * Swap elements of a primitive long array
+	 * @param ary
+	 * @param i
+	 * @param j
+	 */
+	public static final void swap(long[] ary, int i, int j) {
+		long elem = ary[i];
+		ary[i] = ary[j];
+		ary[j] = elem;
+	}
+
+	/**
+	 * Unbox an Integer array into a fresh int array
+	 * @param ary
+	 * @return an int array with the same values as `ary`
+	 */
+	public static final int[] toPrimitive(Integer[] ary) {
+		int primitive[] = new int[ary.length];
+		for (int i = 0; i < ary.length; i++) {
+			primitive[i] = ary[i];
+		}
+		return primitive;
+	}
+
+	/**
+	 * Box an int array into a fresh Integer array
+	 * @param ary
+	 * @return an Integer array with the same values as `ary`
+	 */
+	public static final Integer[] toBoxed(int[] ary) {
+		Integer boxed[] = new Integer[ary.length];
+		for (int i = 0; i < ary.length; i++) {
+			boxed[i] = ary[i];
+		}
+		return boxed;
+	}
+
 }
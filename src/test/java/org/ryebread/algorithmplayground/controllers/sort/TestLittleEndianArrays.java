@@ -0,0 +1,133 @@
+package org.ryebread.algorithmplayground.controllers.sort;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class TestLittleEndianArrays {
+
+	/*
+	 * More than twice the 64KB chunk the arrays are read and written through, and not a multiple of it
+	 */
+	private static final int INT_LENGTH = 40_003;
+	private static final int LONG_LENGTH = 20_003;
+
+	@Test
+	public void testIntRoundTrip() throws IOException {
+		int elements[] = new Random(41).ints(INT_LENGTH).toArray();
+		elements[0] = 0x01020304;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LittleEndianArrays.writeInts(elements, out);
+		byte bytes[] = out.toByteArray();
+
+		assertEquals(elements.length * Integer.BYTES, bytes.length);
+		assertArrayEquals(new byte[] { 4, 3, 2, 1 }, Arrays.copyOf(bytes, 4));
+		assertArrayEquals(elements, LittleEndianArrays.readInts(new ByteArrayInputStream(bytes), bytes.length));
+		assertArrayEquals(elements, LittleEndianArrays.readInts(new ByteArrayInputStream(bytes), -1));
+		// Reads that stop partway through an element
+		assertArrayEquals(elements, LittleEndianArrays.readInts(new TrickleInputStream(bytes, 1001), -1));
+		assertArrayEquals(elements, LittleEndianArrays.intStream(new TrickleInputStream(bytes, 1001)).toArray());
+	}
+
+	@Test
+	public void testLongRoundTrip() throws IOException {
+		long elements[] = new Random(43).longs(LONG_LENGTH).toArray();
+		elements[0] = 0x0102030405060708L;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LittleEndianArrays.writeLongs(elements, out);
+		byte bytes[] = out.toByteArray();
+
+		assertEquals(elements.length * Long.BYTES, bytes.length);
+		assertArrayEquals(new byte[] { 8, 7, 6, 5, 4, 3, 2, 1 }, Arrays.copyOf(bytes, 8));
+		assertArrayEquals(elements, LittleEndianArrays.readLongs(new ByteArrayInputStream(bytes), bytes.length));
+		assertArrayEquals(elements, LittleEndianArrays.readLongs(new ByteArrayInputStream(bytes), -1));
+		assertArrayEquals(elements, LittleEndianArrays.readLongs(new TrickleInputStream(bytes, 1001), -1));
+	}
+
+	@Test
+	public void testEmptyBody() throws IOException {
+		assertEquals(0, LittleEndianArrays.readInts(new ByteArrayInputStream(new byte[0]), 0).length);
+		assertEquals(0, LittleEndianArrays.readInts(new ByteArrayInputStream(new byte[0]), -1).length);
+		assertEquals(0, LittleEndianArrays.readLongs(new ByteArrayInputStream(new byte[0]), -1).length);
+		assertEquals(0, LittleEndianArrays.intStream(new ByteArrayInputStream(new byte[0])).count());
+	}
+
+	@Test
+	public void testDeclaredLengthLongerThanBody() throws IOException {
+		int elements[] = { 3, 1, 2 };
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LittleEndianArrays.writeInts(elements, out);
+		byte bytes[] = out.toByteArray();
+
+		// Sized from the Content-Length, these would be arrays of 2^30 elements before a byte was read
+		long claimed = (long) Integer.BYTES << 30;
+		assertArrayEquals(elements, LittleEndianArrays.readInts(new ByteArrayInputStream(bytes), claimed));
+		assertArrayEquals(new long[] { 0x0000000100000003L },
+				LittleEndianArrays.readLongs(new ByteArrayInputStream(Arrays.copyOf(bytes, 8)), (long) Long.BYTES << 30));
+
+		// Too long to hold in an array at all is still refused before reading anything
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> LittleEndianArrays.readInts(new ByteArrayInputStream(bytes), Long.MAX_VALUE));
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+	}
+
+	@Test
+	public void testTruncatedBody() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LittleEndianArrays.writeInts(new Random(47).ints(INT_LENGTH).toArray(), out);
+		byte ints[] = out.toByteArray();
+		out.reset();
+		LittleEndianArrays.writeLongs(new Random(53).longs(LONG_LENGTH).toArray(), out);
+		byte longs[] = out.toByteArray();
+
+		for (int stray = 1; stray <= 3; stray++) {
+			byte truncatedInts[] = Arrays.copyOf(ints, ints.length + stray);
+			byte truncatedLongs[] = Arrays.copyOf(longs, longs.length + stray);
+			assertBadRequest(() -> LittleEndianArrays.readInts(new ByteArrayInputStream(truncatedInts),
+					truncatedInts.length));
+			assertBadRequest(() -> LittleEndianArrays.readInts(new ByteArrayInputStream(truncatedInts), -1));
+			assertBadRequest(() -> LittleEndianArrays.readInts(new TrickleInputStream(truncatedInts, 1001), -1));
+			assertBadRequest(() -> LittleEndianArrays.intStream(new ByteArrayInputStream(truncatedInts)).count());
+			assertBadRequest(() -> LittleEndianArrays.readLongs(new ByteArrayInputStream(truncatedLongs),
+					truncatedLongs.length));
+			assertBadRequest(() -> LittleEndianArrays.readLongs(new ByteArrayInputStream(truncatedLongs), -1));
+		}
+		// Only a partial long, with no whole one before it
+		assertBadRequest(() -> LittleEndianArrays.readLongs(new ByteArrayInputStream(new byte[7]), 7));
+	}
+
+	private static void assertBadRequest(Executable read) {
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, read);
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+	}
+
+	/**
+	 * Hands back at most `maxRead` bytes per read, the way a network stream might
+	 */
+	private static class TrickleInputStream extends ByteArrayInputStream {
+
+		private final int maxRead;
+
+		TrickleInputStream(byte[] bytes, int maxRead) {
+			super(bytes);
+			this.maxRead = maxRead;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, maxRead));
+		}
+	}
+
+}
@@ -5,9 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Random;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -17,7 +21,10 @@ import org.junit.jupiter.api.Test;
 import org.ryebread.algorithmplayground.services.graph.GraphService;
 import org.ryebread.algorithmplayground.services.graph.GraphServiceImpl;
 import org.ryebread.algorithmplayground.structures.graph.AdjacencyMapGraph;
+import org.ryebread.algorithmplayground.structures.graph.CsrGraph;
+import org.ryebread.algorithmplayground.structures.graph.Edge;
 import org.ryebread.algorithmplayground.structures.graph.EdgeType;
+import org.ryebread.algorithmplayground.structures.graph.EdgeWeight;
 import org.ryebread.algorithmplayground.structures.graph.Graph;
 import org.ryebread.algorithmplayground.structures.graph.WeightedAdjacencyMapGraph;
 import org.ryebread.algorithmplayground.structures.graph.WeightedGraph;
@@ -66,6 +73,38 @@ public class TestGraphService {
 		assertEquals(minSpanTree.getEdge("B", "C").getWeight(), 2L);
 	}
 
+	@Test
+	public void testPrimsMatchesKruskalsOnLargeGraph() {
+		Random random = new Random(53);
+		WeightedGraph<Integer> large = new WeightedAdjacencyMapGraph<>(EdgeType.UNDIRECTED);
+		int n = 2000;
+		for (int i = 0; i < n; i++) {
+			large.addVertex(i);
+		}
+		for (int i = 1; i < n; i++) {
+			// A random spanning tree keeps it connected, the rest make it dense enough to need decrease-key
+			large.addEdge(i, random.nextInt(i), 1L + random.nextInt(1000));
+			for (int j = 0; j < 5; j++) {
+				int other = random.nextInt(n);
+				if (other != i && !large.hasEdge(i, other)) {
+					large.addEdge(i, other, 1L + random.nextInt(1000));
+				}
+			}
+		}
+
+		assertEquals(totalWeight(graphService.kruskals(large)), totalWeight(graphService.prims(large)));
+	}
+
+	private static <T> long totalWeight(WeightedGraph<T> graph) {
+		long total = 0;
+		for (T vertex : graph.getVertices()) {
+			for (Edge<T> edge : graph.getEdges(vertex)) {
+				total += edge.getWeight();
+			}
+		}
+		return total;
+	}
+
 	@Test
 	public void testKruskals() {
 		WeightedGraph<String> minSpanTree = graphService.kruskals(graph);
@@ -137,4 +176,65 @@ public class TestGraphService {
 		assertNotNull(shortestPathGph.getEdge("A", "C"));
 	}
 
+	@Test
+	public void testDijkstrasOnCsrGraph() {
+		Random random = new Random(23);
+		int n = 2_000;
+		WeightedGraph<Integer> graph = new WeightedAdjacencyMapGraph<>(EdgeType.UNDIRECTED);
+		for (int i = 0; i < n; i++) {
+			graph.addVertex(i);
+		}
+		for (int i = 1; i < n; i++) {
+			graph.addEdge(i, random.nextInt(i), 1L + random.nextInt(1000));
+			for (int j = 0; j < 3; j++) {
+				graph.addEdge(i, random.nextInt(n), 1L + random.nextInt(1000));
+			}
+		}
+		CsrGraph<Integer> csr = CsrGraph.of((AdjacencyMapGraph<Integer>) graph);
+
+		// Ties may give different trees, but never different distances
+		assertEquals(pathLengths(graphService.dijkstras(graph, 0), 0),
+				pathLengths(graphService.dijkstras(csr, 0), 0));
+	}
+
+	@Test
+	public void testDijkstrasTakesTheLighterParallelEdge() {
+		WeightedGraph<Integer> graph = new WeightedAdjacencyMapGraph<>(EdgeType.DIRECTED);
+		for (int i = 0; i < 3; i++) {
+			graph.addVertex(i);
+		}
+		graph.addEdge(0, 1, 10L);
+		graph.addEdge(0, 1, 3L);
+		graph.addEdge(1, 2, 1L);
+		CsrGraph<Integer> csr = new CsrGraph.Builder(3, EdgeType.DIRECTED, EdgeWeight.WEIGHTED)
+				.addEdge(0, 1, 10)
+				.addEdge(0, 1, 3)
+				.addEdge(1, 2, 1)
+				.build();
+
+		for (WeightedGraph<Integer> tree : Arrays.asList(graphService.dijkstras(graph, 0),
+				graphService.dijkstras(csr, 0))) {
+			assertEquals(3L, tree.getEdge(0, 1).getWeight());
+			assertEquals(4L, pathLengths(tree, 0).get(2));
+		}
+	}
+
+	/**
+	 * @return the length of the path from `root` to every vertex of a shortest path tree
+	 */
+	private static <T> Map<T, Long> pathLengths(WeightedGraph<T> tree, T root) {
+		Map<T, Long> lengths = new HashMap<>();
+		Queue<T> next = new LinkedList<>();
+		lengths.put(root, 0L);
+		next.add(root);
+		while (!next.isEmpty()) {
+			T vertex = next.remove();
+			for (Edge<T> edge : tree.getEdges(vertex)) {
+				lengths.put(edge.to(), lengths.get(vertex) + edge.getWeight());
+				next.add(edge.to());
+			}
+		}
+		return lengths;
+	}
+
 }
@@ -0,0 +1,44 @@
+package org.ryebread.algorithmplayground.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.ryebread.algorithmplayground.models.sort.SortMetrics;
+import org.ryebread.algorithmplayground.services.sort.SortAlgorithm;
+import org.ryebread.algorithmplayground.services.sort.SortInstrumentation;
+import org.ryebread.algorithmplayground.services.sort.SortService;
+import org.ryebread.algorithmplayground.services.sort.SortServiceImpl;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TestSortInstrumentation {
+
+	private SortService sortService = new SortServiceImpl();
+
+	@Test
+	public void testMeasureRecordsTimer() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		SortInstrumentation instrumentation = new SortInstrumentation(registry);
+		int elements[] = new int[] { 5, 2, 4, 6, 1, 3 };
+
+		SortMetrics metrics = instrumentation.measure("MERGE", elements.length,
+				() -> sortService.sort(elements, SortAlgorithm.MERGE));
+
+		assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 6 }, elements);
+		assertEquals("MERGE", metrics.getAlgorithm());
+		assertEquals(6, metrics.getSize());
+		Timer timer = registry.find("sort.duration").tag("algorithm", "MERGE").tag("size", "<=10").timer();
+		assertNotNull(timer);
+		assertEquals(1, timer.count());
+		// The tests don't run with -Dsort.instrumentation=true
+		if (!instrumentation.isCounting()) {
+			assertNull(metrics.getComparisons());
+			assertNull(registry.find("sort.comparisons").summary());
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package org.ryebread.algorithmplayground.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.ryebread.algorithmplayground.models.sort.SortJobStatus;
+import org.ryebread.algorithmplayground.services.sort.SortAlgorithm;
+import org.ryebread.algorithmplayground.services.sort.SortJob;
+import org.ryebread.algorithmplayground.services.sort.SortJobService;
+
+public class TestSortJobService {
+
+	@Test
+	public void testJobSortsInChunks() throws InterruptedException {
+		SortJobService service = new SortJobService(2, 4, 4);
+		try {
+			// Large enough to be sorted in chunks and merged
+			int ints[] = new Random(29).ints(3_000_000).toArray();
+			long longs[] = new Random(31).longs(3_000_000).toArray();
+			int expectedInts[] = ints.clone();
+			long expectedLongs[] = longs.clone();
+			Arrays.sort(expectedInts);
+			Arrays.sort(expectedLongs);
+
+			SortJob intJob = service.submit(ints, SortAlgorithm.INTRO);
+			SortJob longJob = service.submit(longs, SortAlgorithm.RADIX);
+			awaitFinished(intJob);
+			awaitFinished(longJob);
+
+			SortJobStatus status = intJob.getStatus();
+			assertEquals("DONE", status.getState());
+			assertEquals(100, status.getProgress());
+			assertEquals(32, status.getBits());
+			assertArrayEquals(expectedInts, intJob.getInts());
+			assertEquals("DONE", longJob.getStatus().getState());
+			assertArrayEquals(expectedLongs, longJob.getLongs());
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	public void testFullQueueRejectsAndRemoveCancels() throws InterruptedException {
+		SortJobService service = new SortJobService(1, 1, 4);
+		try {
+			// Insertion sort on chunks of 65536 takes long enough to still be running below
+			int slow[] = new Random(37).ints(1 << 20).toArray();
+			SortJob running = service.submit(slow, SortAlgorithm.INSERTION);
+			while (running.getState() == SortJob.State.QUEUED) {
+				Thread.sleep(5);
+			}
+			SortJob queued = service.submit(new int[] { 3, 1, 2 }, SortAlgorithm.MERGE);
+			assertTrue(service.isSaturated());
+			assertThrows(RejectedExecutionException.class, () -> service.submit(new int[] { 1 }, SortAlgorithm.MERGE));
+
+			assertTrue(service.remove(queued.getId()));
+			assertTrue(service.remove(running.getId()));
+			assertNull(service.get(running.getId()));
+			awaitFinished(running);
+			assertEquals(SortJob.State.CANCELLED, running.getState());
+			assertEquals(SortJob.State.CANCELLED, queued.getState());
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	private static void awaitFinished(SortJob job) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 60_000;
+		while (job.getState() == SortJob.State.QUEUED || job.getState() == SortJob.State.RUNNING) {
+			assertTrue(System.currentTimeMillis() < deadline, "Job " + job.getId() + " didn't finish");
+			Thread.sleep(10);
+		}
+	}
+
+}
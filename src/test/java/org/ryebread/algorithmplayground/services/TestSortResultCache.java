@@ -0,0 +1,69 @@
+package org.ryebread.algorithmplayground.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.ryebread.algorithmplayground.models.sort.MergeSortView;
+import org.ryebread.algorithmplayground.models.sort.SortCacheStats;
+import org.ryebread.algorithmplayground.services.sort.SortResultCache;
+import org.ryebread.algorithmplayground.services.sort.SortService;
+import org.ryebread.algorithmplayground.services.sort.SortServiceImpl;
+
+public class TestSortResultCache {
+
+	private SortService sortService = new SortServiceImpl();
+
+	@Test
+	public void testRepeatedInputIsAHit() {
+		SortResultCache cache = new SortResultCache(1 << 20);
+		AtomicInteger computed = new AtomicInteger();
+		int elements[] = new int[] { 5, 2, 4, 6, 1, 3 };
+
+		MergeSortView first = cache.get("merge", elements, () -> {
+			computed.incrementAndGet();
+			return sortService.mergeSort(elements);
+		}, SortResultCache::sizeOf);
+		// mergeSort sorted `elements` in place, so ask again with the original order
+		MergeSortView second = cache.get("merge", new int[] { 5, 2, 4, 6, 1, 3 }, () -> {
+			computed.incrementAndGet();
+			return sortService.mergeSort(new int[] { 5, 2, 4, 6, 1, 3 });
+		}, SortResultCache::sizeOf);
+
+		assertSame(first, second);
+		assertEquals(1, computed.get());
+		SortCacheStats stats = cache.getStats();
+		assertEquals(1, stats.getHits());
+		assertEquals(1, stats.getMisses());
+	}
+
+	@Test
+	public void testDifferentAlgorithmOrInputIsAMiss() {
+		SortResultCache cache = new SortResultCache(1 << 20);
+		int elements[] = new int[] { 3, 1, 2 };
+		cache.get("heap", elements, () -> sortService.heapSort(elements), SortResultCache::sizeOf);
+		cache.get("heap", new int[] { 3, 2, 1 }, () -> sortService.heapSort(new int[] { 3, 2, 1 }),
+				SortResultCache::sizeOf);
+		cache.get("insertion", elements, () -> sortService.insertionSort(elements), SortResultCache::sizeOf);
+
+		assertEquals(0, cache.getStats().getHits());
+		assertEquals(3, cache.getStats().getEntries());
+	}
+
+	@Test
+	public void testEvictsByBytes() {
+		SortResultCache cache = new SortResultCache(64 * 1024);
+		for (int i = 0; i < 100; i++) {
+			int elements[] = new int[] { i, 3, 2, 1 };
+			cache.get("heap", elements, () -> new int[1][1000], SortResultCache::sizeOf);
+		}
+		SortCacheStats stats = cache.getStats();
+		assertTrue(stats.getBytes() <= stats.getMaxBytes());
+		assertTrue(stats.getEvictions() > 0);
+		assertEquals(100 - stats.getEvictions(), stats.getEntries());
+	}
+
+}
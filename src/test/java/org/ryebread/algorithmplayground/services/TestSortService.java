@@ -1,14 +1,33 @@
 package org.ryebread.algorithmplayground.services;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ryebread.algorithmplayground.models.sort.ArrayPair;
+import org.ryebread.algorithmplayground.models.sort.HeapSortTrace;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortStats;
+import org.ryebread.algorithmplayground.models.sort.InsertionSortTrace;
+import org.ryebread.algorithmplayground.models.sort.MergeSortView;
+import org.ryebread.algorithmplayground.services.sort.SortAlgorithm;
 import org.ryebread.algorithmplayground.services.sort.SortService;
 import org.ryebread.algorithmplayground.services.sort.SortServiceImpl;
+import org.ryebread.algorithmplayground.structures.heap.Heap;
+import org.ryebread.algorithmplayground.structures.heap.MinHeap;
 
 public class TestSortService {
 
@@ -119,4 +138,399 @@ public class TestSortService {
 
 	}
 
+	@Test
+	public void testPrimitiveSorts() {
+		Random random = new Random(42);
+		for (SortAlgorithm algorithm : SortAlgorithm.values()) {
+			for (int size : new int[] { 0, 1, 2, 17, 1000 }) {
+				int ints[] = random.ints(size, -500, 500).toArray();
+				int expectedInts[] = ints.clone();
+				Arrays.sort(expectedInts);
+				sortService.sort(ints, algorithm);
+				assertArrayEquals(expectedInts, ints, algorithm + " on int[" + size + "]");
+
+				long longs[] = random.longs(size).toArray();
+				long expectedLongs[] = longs.clone();
+				Arrays.sort(expectedLongs);
+				sortService.sort(longs, algorithm);
+				assertArrayEquals(expectedLongs, longs, algorithm + " on long[" + size + "]");
+			}
+		}
+	}
+
+	@Test
+	public void testInsertionSortSteps() {
+		Integer elements[] = new Integer[] { 5, 2, 4, 6, 1, 3 };
+		List<InsertionSortStats> steps = sortService.insertionSort(elements);
+
+		assertEquals(elements.length, steps.size());
+		assertArrayEquals(new int[] { 5, 2, 4, 6, 1, 3 }, steps.get(0).getSequence());
+		assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 6 }, steps.get(steps.size() - 1).getSequence());
+		assertEquals(2, steps.get(steps.size() - 1).getFocusIndex());
+	}
+
+	@Test
+	public void testMergeSortSortsBoxedElements() {
+		Integer elements[] = new Integer[] { 5, Integer.MAX_VALUE, 2, 4, Integer.MIN_VALUE, 6, 1, 3 };
+		sortService.mergeSort(elements);
+
+		assertArrayEquals(new Integer[] { Integer.MIN_VALUE, 1, 2, 3, 4, 5, 6, Integer.MAX_VALUE }, elements);
+	}
+
+	@Test
+	public void testHeapSortMatchesMinHeap() {
+		Integer elements[] = new Integer[] { 5, 4, 3, 2, 6, 7, 8, 1, 1 };
+		Integer[] iters[] = sortService.heapSort(elements);
+
+		Heap heap = new MinHeap(elements);
+		for (int i = 0; i < elements.length; i++) {
+			assertArrayEquals(heap.getTree(), iters[i]);
+			heap.pop();
+		}
+	}
+
+	@Test
+	public void testParallelMergeSort() {
+		Random random = new Random(7);
+		int ints[] = random.ints(200_000).toArray();
+		int expectedInts[] = ints.clone();
+		Arrays.sort(expectedInts);
+		sortService.sort(ints, SortAlgorithm.PARALLEL_MERGE);
+		assertArrayEquals(expectedInts, ints);
+
+		long longs[] = random.longs(200_001, 0, 1000).toArray();
+		long expectedLongs[] = longs.clone();
+		Arrays.sort(expectedLongs);
+		sortService.sort(longs, SortAlgorithm.PARALLEL_MERGE);
+		assertArrayEquals(expectedLongs, longs);
+	}
+
+	@Test
+	public void testParallelMergeSortViewMatchesSequential() {
+		int elements[] = new Random(11).ints(5000, 0, 100).toArray();
+		MergeSortView sequential = sortService.mergeSort(elements.clone(), false);
+		MergeSortView parallel = sortService.mergeSort(elements.clone(), true);
+
+		assertEquals(sequential.getPairLists().size(), parallel.getPairLists().size());
+		for (int i = 0; i < sequential.getPairLists().size(); i++) {
+			List<ArrayPair> expected = sequential.getPairLists().get(i);
+			List<ArrayPair> actual = parallel.getPairLists().get(i);
+			assertEquals(expected.size(), actual.size());
+			for (int j = 0; j < expected.size(); j++) {
+				assertArrayEquals(expected.get(j).getLeft(), actual.get(j).getLeft());
+				assertArrayEquals(expected.get(j).getRight(), actual.get(j).getRight());
+			}
+		}
+	}
+
+	@Test
+	public void testNaturalMergeSortOnPartlyOrderedInput() {
+		Random random = new Random(13);
+		int size = 100_000;
+		List<int[]> inputs = new ArrayList<>();
+		int ascending[] = random.ints(size).toArray();
+		Arrays.sort(ascending);
+		inputs.add(ascending);
+		int appended[] = ascending.clone();
+		for (int i = size - size / 100; i < size; i++) {
+			appended[i] = random.nextInt();
+		}
+		inputs.add(appended);
+		int descending[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			descending[i] = size - i;
+		}
+		inputs.add(descending);
+		int sawtooth[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			sawtooth[i] = (i % 1000) * ((i / 1000) % 2 == 0 ? 1 : -1);
+		}
+		inputs.add(sawtooth);
+		inputs.add(random.ints(size, 0, 4).toArray());
+
+		for (int input[] : inputs) {
+			int expected[] = input.clone();
+			Arrays.sort(expected);
+			int actual[] = input.clone();
+			sortService.sort(actual, SortAlgorithm.NATURAL_MERGE);
+			assertArrayEquals(expected, actual);
+
+			long longs[] = Arrays.stream(input).asLongStream().toArray();
+			sortService.sort(longs, SortAlgorithm.NATURAL_MERGE);
+			assertArrayEquals(Arrays.stream(expected).asLongStream().toArray(), longs);
+		}
+	}
+
+	@Test
+	public void testNaturalMergeSortView() {
+		int elements[] = new int[] { 3, 4, 5, 2, 1, 0, 8, 9, 6, 7 };
+		MergeSortView view = sortService.naturalMergeSort(elements);
+
+		assertArrayEquals(new int[] { 0, 3, 6, 8 }, view.getRunStarts());
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 }, elements);
+		List<List<ArrayPair>> pairLists = view.getPairLists();
+		assertEquals(3, pairLists.size());
+		// The descending run was reversed in place before being merged
+		assertArrayEquals(new int[] { 3, 4, 5 }, pairLists.get(0).get(0).getLeft());
+		assertArrayEquals(new int[] { 0, 1, 2 }, pairLists.get(0).get(0).getRight());
+		assertArrayEquals(new int[] { 8, 9 }, pairLists.get(0).get(1).getLeft());
+		assertArrayEquals(new int[] { 6, 7 }, pairLists.get(0).get(1).getRight());
+		assertArrayEquals(elements, pairLists.get(2).get(0).getLeft());
+
+		int large[] = new Random(17).ints(10_000).toArray();
+		int expected[] = large.clone();
+		Arrays.sort(expected);
+		view = sortService.naturalMergeSort(large);
+		assertArrayEquals(expected, large);
+		assertEquals(0, view.getRunStarts()[0]);
+	}
+
+	@Test
+	public void testTopK() {
+		int elements[] = new Random(19).ints(100_000, -1000, 1000).toArray();
+		int sorted[] = elements.clone();
+		Arrays.sort(sorted);
+
+		for (int k : new int[] { 0, 1, 100, 100_000, 200_000 }) {
+			int expected[] = Arrays.copyOf(sorted, Math.min(k, sorted.length));
+			assertArrayEquals(expected, sortService.topK(Arrays.stream(elements), k, false));
+			assertArrayEquals(expected, sortService.topK(Arrays.stream(elements).parallel(), k, false));
+
+			int expectedLargest[] = new int[expected.length];
+			for (int i = 0; i < expectedLargest.length; i++) {
+				expectedLargest[i] = sorted[sorted.length - 1 - i];
+			}
+			assertArrayEquals(expectedLargest, sortService.topK(Arrays.stream(elements), k, true));
+		}
+	}
+
+	@Test
+	public void testIntroSortOnAdversarialInput() {
+		int size = 50_000;
+		List<int[]> inputs = new ArrayList<>();
+		inputs.add(new int[size]);
+		int organPipe[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			organPipe[i] = Math.min(i, size - i);
+		}
+		inputs.add(organPipe);
+		int descending[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			descending[i] = size - i;
+		}
+		inputs.add(descending);
+		inputs.add(new Random(23).ints(size, 0, 3).toArray());
+		inputs.add(new Random(29).ints(size).toArray());
+
+		for (int input[] : inputs) {
+			int expected[] = input.clone();
+			Arrays.sort(expected);
+			int actual[] = input.clone();
+			sortService.sort(actual, SortAlgorithm.INTRO);
+			assertArrayEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testNthElement() {
+		Random random = new Random(31);
+		for (int size : new int[] { 1, 2, 25, 1001, 100_000 }) {
+			int elements[] = random.ints(size, -100, 100).toArray();
+			int sorted[] = elements.clone();
+			Arrays.sort(sorted);
+			for (int n : new int[] { 0, size / 3, size / 2, size - 1 }) {
+				int partitioned[] = elements.clone();
+				assertEquals(sorted[n], sortService.nthElement(partitioned, n));
+				for (int i = 0; i < size; i++) {
+					assertTrue(i < n ? partitioned[i] <= sorted[n] : partitioned[i] >= sorted[n]);
+				}
+			}
+			assertEquals(sorted[(size - 1) / 2], sortService.median(elements.clone()));
+
+			long longs[] = random.longs(size).toArray();
+			long sortedLongs[] = longs.clone();
+			Arrays.sort(sortedLongs);
+			assertEquals(sortedLongs[size / 2], sortService.nthElement(longs, size / 2));
+		}
+	}
+
+	@Test
+	public void testInsertionSortTraceRebuildsEveryFrame() {
+		int elements[] = new Random(3).ints(300, -50, 50).toArray();
+		List<InsertionSortStats> steps = sortService.insertionSort(elements);
+
+		for (int interval : new int[] { 0, 1, 7, 1000 }) {
+			InsertionSortTrace trace = sortService.insertionSortTrace(elements, interval);
+			for (int step = 0; step < steps.size(); step++) {
+				assertArrayEquals(steps.get(step).getSequence(), trace.frame(step));
+				assertEquals(steps.get(step).getFocusIndex(), trace.getFocusIndices()[step]);
+			}
+		}
+	}
+
+	@Test
+	public void testHeapSortTraceRebuildsEveryTree() {
+		int elements[] = new Random(5).ints(257, -20, 20).toArray();
+		int[] iters[] = sortService.heapSort(elements);
+
+		for (int interval : new int[] { 0, 1, 10, 1000 }) {
+			HeapSortTrace trace = sortService.heapSortTrace(elements, interval);
+			for (int pop = 0; pop < iters.length; pop++) {
+				assertArrayEquals(iters[pop], trace.tree(pop));
+			}
+		}
+	}
+
+	@Test
+	public void testParallelLsdRadixSort() {
+		Random random = new Random(13);
+		String strings[] = new String[50_000];
+		for (int i = 0; i < strings.length; i++) {
+			char chars[] = new char[6];
+			for (int j = 0; j < chars.length; j++) {
+				chars[j] = (char) ('0' + random.nextInt(10));
+			}
+			strings[i] = new String(chars);
+		}
+		String expected[] = strings.clone();
+		Arrays.sort(expected);
+
+		for (boolean parallel : new boolean[] { true, false }) {
+			for (boolean packKeys : new boolean[] { true, false }) {
+				String sorted[] = strings.clone();
+				sortService.lsdRadixSort(sorted, 6, parallel, packKeys);
+				assertArrayEquals(expected, sorted, "parallel=" + parallel + ", packKeys=" + packKeys);
+			}
+		}
+	}
+
+	@Test
+	public void testHybridMsdRadixSort() {
+		Random random = new Random(17);
+		String strings[] = new String[20_000];
+		for (int i = 0; i < strings.length; i++) {
+			// Long shared prefixes, varying lengths and a few characters past the basic alphabet
+			StringBuilder sb = new StringBuilder("shared/prefix/");
+			int length = random.nextInt(12);
+			for (int j = 0; j < length; j++) {
+				sb.append((char) ('a' + random.nextInt(4)));
+			}
+			if (random.nextInt(10) == 0) {
+				sb.append((char) 0xE9);
+			}
+			strings[i] = sb.toString();
+		}
+		String expected[] = strings.clone();
+		Arrays.sort(expected);
+
+		for (int cutoff : new int[] { 0, 1, 15, 100 }) {
+			String sorted[] = strings.clone();
+			sortService.msdRadixSort(sorted, cutoff);
+			assertArrayEquals(expected, sorted, "cutoff=" + cutoff);
+		}
+	}
+
+	@Test
+	public void testUtf16RadixSorts() {
+		Random random = new Random(23);
+		// Latin, Greek, CJK and a surrogate pair, plus plain ASCII whose high bytes are all 0
+		char alphabet[] = new char[] { 'a', 'z', 0xE9, 0x3A9, 0x3B1, 0x4E2D, 0x6587, 0xD83D, 0xDE00, 0xFF21 };
+		String fixedLength[] = new String[30_000];
+		String varyingLength[] = new String[30_000];
+		for (int i = 0; i < fixedLength.length; i++) {
+			char chars[] = new char[5];
+			for (int j = 0; j < chars.length; j++) {
+				chars[j] = alphabet[random.nextInt(alphabet.length)];
+			}
+			fixedLength[i] = new String(chars);
+			varyingLength[i] = "shared/" + new String(chars, 0, random.nextInt(chars.length + 1));
+		}
+
+		String expected[] = fixedLength.clone();
+		Arrays.sort(expected);
+		sortService.utf16LsdRadixSort(fixedLength, 5);
+		assertArrayEquals(expected, fixedLength);
+
+		expected = varyingLength.clone();
+		Arrays.sort(expected);
+		sortService.utf16MsdRadixSort(varyingLength);
+		assertArrayEquals(expected, varyingLength);
+	}
+
+	@Test
+	public void testParallelThreeWayRadixQuickSort() {
+		Random random = new Random(19);
+		String strings[] = new String[100_000];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = "https://example.com/" + random.nextInt(5000) + "/" + random.nextInt(100);
+		}
+		String expected[] = strings.clone();
+		Arrays.sort(expected);
+
+		sortService.threeWayRadixQuickSort(strings, true);
+		assertArrayEquals(expected, strings);
+
+		// Already sorted input is where the median-of-three anchor earns its keep
+		sortService.threeWayRadixQuickSort(strings, true);
+		assertArrayEquals(expected, strings);
+	}
+
+	@Test
+	public void testIntegerLsdRadixSort() {
+		Random random = new Random(23);
+		int edges[] = new int[] { Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE, -256, 256 };
+		for (int ints[] : new int[][] { random.ints(100_000).toArray(), random.ints(10_000, -3, 3).toArray(),
+				random.ints(10_000, 1 << 20, (1 << 20) + 100).toArray(), edges, new int[0] }) {
+			int expected[] = ints.clone();
+			Arrays.sort(expected);
+			sortService.lsdRadixSort(ints);
+			assertArrayEquals(expected, ints);
+		}
+
+		long longs[] = random.longs(100_000).toArray();
+		longs[0] = Long.MIN_VALUE;
+		longs[1] = Long.MAX_VALUE;
+		long expectedLongs[] = longs.clone();
+		Arrays.sort(expectedLongs);
+		sortService.lsdRadixSort(longs);
+		assertArrayEquals(expectedLongs, longs);
+	}
+
+	@Test
+	public void testExternalSortLongs(@TempDir Path directory) throws IOException {
+		long longs[] = new Random(29).longs(200_000).toArray();
+		ByteBuffer bytes = ByteBuffer.allocate(longs.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		bytes.asLongBuffer().put(longs);
+		Path input = Files.write(directory.resolve("input"), bytes.array());
+		Path output = directory.resolve("output");
+
+		// A tiny budget forces a few hundred runs and more than one round of merging
+		sortService.externalSortLongs(input, output, 32 * 1024);
+
+		long sorted[] = new long[longs.length];
+		ByteBuffer.wrap(Files.readAllBytes(output)).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(sorted);
+		Arrays.sort(longs);
+		assertArrayEquals(longs, sorted);
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(2, files.count(), "run files should be cleaned up");
+		}
+	}
+
+	@Test
+	public void testExternalSortLines(@TempDir Path directory) throws IOException {
+		Random random = new Random(31);
+		List<String> lines = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			lines.add("key-" + random.nextInt(1_000_000) + (random.nextBoolean() ? "\u00e9\u4e2d" : ""));
+		}
+		Path input = Files.write(directory.resolve("input"), lines, StandardCharsets.UTF_8);
+		Path output = directory.resolve("output");
+
+		sortService.externalSortLines(input, output, 32 * 1024);
+
+		List<String> sorted = Files.readAllLines(output, StandardCharsets.UTF_8);
+		lines.sort(null);
+		assertEquals(lines, sorted);
+	}
+
 }
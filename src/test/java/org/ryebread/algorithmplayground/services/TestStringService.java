@@ -1,6 +1,7 @@
 package org.ryebread.algorithmplayground.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
@@ -77,12 +78,48 @@ public class TestStringService {
 		assertEquals(dfa['C'][5], 6);
 	}
 
+	@Test
+	public void testSearchPastLatin1() {
+		String str = "\u03A9mega \u03A9m \u4E2D\u6587 \u03A9m\u03A9";
+		assertEquals(str.indexOf("\u4E2D\u6587"), stringService.knuthMorrisPratt(str, "\u4E2D\u6587"));
+		assertEquals(str.indexOf("\u03A9m\u03A9"), stringService.knuthMorrisPratt(str, "\u03A9m\u03A9"));
+		assertEquals(str.indexOf("\u4E2D\u6587"), stringService.boyerMoore(str, "\u4E2D\u6587"));
+		// Text chars past the pattern's largest char reset the search
+		assertEquals(str.indexOf("m "), stringService.knuthMorrisPratt(str, "m "));
+	}
+
+	@Test
+	public void testSearchForLongPatternPastLatin1() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 4096; i++) {
+			builder.append((char) ('\uFF00' + i % 0xFF));
+		}
+		String pattern = builder.toString();
+		// A DFA over every char up to \uFFFE would be 65535 rows of 4096 states
+		assertThrows(IllegalArgumentException.class, () -> stringService.createDfa(pattern));
+
+		String str = "\uFF00\uFF01" + pattern.substring(0, 4000) + pattern + "abc";
+		assertEquals(str.indexOf(pattern), stringService.knuthMorrisPratt(str, pattern));
+		assertEquals(str.indexOf(pattern), stringService.boyerMoore(str, pattern));
+		assertEquals(str.length(), stringService.knuthMorrisPratt(str, pattern + "d"));
+	}
+
+	@Test
+	public void testBoyerMooreCharsSharingALowByte() {
+		// \u0141 and \u0241 share their low byte with 'A', so all three share a slot of the right array
+		String str = "AAA\u0241\u0141A\u0141\u0241A\u0141";
+		assertEquals(str.indexOf("\u0241A\u0141"), stringService.boyerMoore(str, "\u0241A\u0141"));
+		assertEquals(str.indexOf("A\u0141\u0241"), stringService.boyerMoore(str, "A\u0141\u0241"));
+	}
+
 	@Test
 	public void testBoyerMoore() {
 		String str = "This is a very long string that a pattern will check";
 		String pattern = "pattern";
 		int position = stringService.boyerMoore(str, pattern);
 		assertEquals(position, 34);
+		// A match at the very end of the string
+		assertEquals(str.length() - 5, stringService.boyerMoore(str, "check"));
 
 	}
 
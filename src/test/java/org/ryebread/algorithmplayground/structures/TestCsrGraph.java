@@ -0,0 +1,97 @@
+package org.ryebread.algorithmplayground.structures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.ryebread.algorithmplayground.structures.graph.AdjacencyMapGraph;
+import org.ryebread.algorithmplayground.structures.graph.CsrGraph;
+import org.ryebread.algorithmplayground.structures.graph.Edge;
+import org.ryebread.algorithmplayground.structures.graph.EdgeType;
+import org.ryebread.algorithmplayground.structures.graph.EdgeWeight;
+import org.ryebread.algorithmplayground.structures.graph.WeightedAdjacencyMapGraph;
+import org.ryebread.algorithmplayground.structures.graph.WeightedGraph;
+
+public class TestCsrGraph {
+
+	@Test
+	public void testCopiesAdjacencyMapGraph() {
+		WeightedGraph<String> graph = new WeightedAdjacencyMapGraph<>(EdgeType.UNDIRECTED);
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addVertex("C");
+		graph.addEdge("A", "B", 4L);
+		graph.addEdge("B", "C", 2L);
+
+		CsrGraph<String> csr = CsrGraph.of((AdjacencyMapGraph<String>) graph);
+		assertEquals(3, csr.numVertices());
+		assertEquals(4, csr.numEdges());
+		assertTrue(csr.isWeighted());
+		assertEquals(EdgeType.UNDIRECTED, csr.getEdgeType());
+		for (String from : graph.getVertices()) {
+			assertEquals(graph.getEdges(from), csr.getEdges(from));
+			for (String to : graph.getVertices()) {
+				assertEquals(graph.getEdge(from, to), csr.getEdge(from, to));
+			}
+		}
+		assertNull(csr.getEdges("D"));
+		assertFalse(csr.hasEdge("A", "D"));
+		assertThrows(UnsupportedOperationException.class, () -> csr.addEdge("A", "C", 1L));
+
+		AdjacencyMapGraph<String> unweighted = new AdjacencyMapGraph<>();
+		unweighted.addVertex("A");
+		unweighted.addVertex("B");
+		unweighted.addEdge("A", "B");
+		CsrGraph<String> unweightedCsr = CsrGraph.of(unweighted);
+		assertFalse(unweightedCsr.isWeighted());
+		assertEquals(unweighted.getEdge("A", "B"), unweightedCsr.getEdge("A", "B"));
+	}
+
+	@Test
+	public void testBuilderSortsEdgesBySource() {
+		CsrGraph<Integer> graph = new CsrGraph.Builder(4, EdgeType.DIRECTED, EdgeWeight.WEIGHTED)
+				.addEdge(2, 0, 7)
+				.addEdge(0, 1, 3)
+				.addEdge(2, 3, 1)
+				.addEdge(0, 2, 5)
+				.build();
+		assertEquals(Arrays.asList(0, 1, 2, 3), graph.getVertices());
+		assertEquals(0, graph.edgeStart(0));
+		assertEquals(2, graph.edgeEnd(0));
+		assertEquals(2, graph.edgeStart(1));
+		assertEquals(2, graph.edgeEnd(1));
+		// Edges out of a vertex stay in the order they were added
+		assertEquals(1, graph.target(0));
+		assertEquals(2, graph.target(1));
+		assertEquals(0, graph.target(2));
+		assertEquals(7, graph.weight(2));
+		assertEquals(new Edge<>(2, 3, 1L), graph.getEdge(2, 3));
+		assertEquals(-1, graph.indexOf(4));
+		assertThrows(IllegalArgumentException.class,
+				() -> new CsrGraph.Builder(2, EdgeType.DIRECTED, EdgeWeight.UNWEIGHTED).addEdge(0, 2));
+
+		CsrGraph<Integer> reversed = graph.reverse();
+		assertEquals(graph.numEdges(), reversed.numEdges());
+		assertEquals(new Edge<>(0, 2, 7L), reversed.getEdge(0, 2));
+		assertEquals(new Edge<>(2, 0, 5L), reversed.getEdge(2, 0));
+		assertFalse(reversed.hasEdge(0, 1));
+	}
+
+	@Test
+	public void testFromEdgeStream() {
+		CsrGraph<String> graph = CsrGraph.of(Arrays.asList("X", "Y", "Z"),
+				Stream.of(new Edge<>("X", "Y", 2L), new Edge<>("Z", "X", 9L)), EdgeType.UNDIRECTED);
+		assertEquals(4, graph.numEdges());
+		assertEquals(9L, graph.getEdge("X", "Z").getWeight());
+		assertTrue(graph.hasEdge("Y", "X"));
+		assertThrows(IllegalArgumentException.class, () -> CsrGraph.of(Arrays.asList("X"),
+				Stream.of(new Edge<>("X", "W", 1L)), EdgeType.DIRECTED));
+	}
+
+}
@@ -2,9 +2,30 @@ package org.ryebread.algorithmplayground.structures;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
+import org.ryebread.algorithmplayground.exceptions.EmptyHeapException;
 import org.ryebread.algorithmplayground.structures.heap.Heap;
+import org.ryebread.algorithmplayground.structures.heap.IndexedMinHeap;
+import org.ryebread.algorithmplayground.structures.heap.IndexedPriorityQueue;
+import org.ryebread.algorithmplayground.structures.heap.IntHeap;
+import org.ryebread.algorithmplayground.structures.heap.IntHeapView;
+import org.ryebread.algorithmplayground.structures.heap.LongMultiQueue;
+import org.ryebread.algorithmplayground.structures.heap.LongHeap;
+import org.ryebread.algorithmplayground.structures.heap.LongHeapView;
 import org.ryebread.algorithmplayground.structures.heap.MinHeap;
+import org.ryebread.algorithmplayground.structures.heap.PairingHeap;
+import org.ryebread.algorithmplayground.structures.heap.RadixHeap;
 
 class TestHeap {
 
@@ -16,4 +37,317 @@ class TestHeap {
 		assertEquals(smallest, 2);
 	}
 
+	@Test
+	void testIntHeapMatchesPriorityQueue() {
+		Random random = new Random(41);
+		for (int arity : new int[] { 2, 4, 8 }) {
+			for (boolean max : new boolean[] { false, true }) {
+				IntHeap heap = max ? IntHeap.max(arity) : IntHeap.min(arity);
+				PriorityQueue<Integer> expected = max ? new PriorityQueue<>(Collections.reverseOrder())
+						: new PriorityQueue<>();
+				for (int i = 0; i < 20_000; i++) {
+					int operation = random.nextInt(4);
+					// Extremes included, since a max-heap stores its elements complemented
+					int element = random.nextInt(10) == 0 ? Integer.MIN_VALUE + random.nextInt(2) : random.nextInt();
+					if (operation < 2 || expected.isEmpty()) {
+						heap.push(element);
+						expected.add(element);
+					} else if (operation == 2) {
+						assertEquals((int) expected.poll(), heap.pop(), "arity=" + arity + ", max=" + max);
+					} else {
+						assertEquals((int) expected.poll(), heap.replaceTop(element));
+						expected.add(element);
+					}
+					assertEquals(expected.size(), heap.size());
+				}
+				while (!expected.isEmpty()) {
+					assertEquals((int) expected.poll(), heap.pop());
+				}
+				assertThrows(EmptyHeapException.class, heap::peek);
+			}
+		}
+	}
+
+	@Test
+	void testLongHeapHeapify() {
+		long elements[] = new Random(43).longs(10_001).toArray();
+		for (int arity : new int[] { 2, 4, 8 }) {
+			LongHeap min = LongHeap.min(arity, elements);
+			LongHeap max = LongHeap.max(arity, elements);
+			long sorted[] = elements.clone();
+			Arrays.sort(sorted);
+			for (int i = 0; i < sorted.length; i++) {
+				assertEquals(sorted[i], min.pop());
+				assertEquals(sorted[sorted.length - 1 - i], max.pop());
+			}
+			assertTrue(min.isEmpty());
+		}
+		assertThrows(IllegalArgumentException.class, () -> LongHeap.min(3));
+	}
+
+	@Test
+	void testIndexedMinHeap() {
+		checkIndexedPriorityQueue(new IndexedMinHeap(500), false);
+
+		// update() inserts an id, or raises or lowers its priority, whichever it takes
+		Random random = new Random(47);
+		int capacity = 100;
+		IndexedMinHeap heap = new IndexedMinHeap(capacity);
+		long expected[] = new long[capacity];
+		Arrays.fill(expected, -1);
+		for (int i = 0; i < 5_000; i++) {
+			int id = random.nextInt(capacity);
+			long priority = random.nextInt(1000);
+			heap.update(id, priority);
+			expected[id] = priority;
+			assertEquals(priority, heap.priorityOf(id));
+		}
+		long previous = Long.MIN_VALUE;
+		while (!heap.isEmpty()) {
+			long lowest = heap.peekPriority();
+			int popped = heap.pop();
+			assertEquals(expected[popped], lowest);
+			assertTrue(lowest >= previous);
+			previous = lowest;
+			expected[popped] = -1;
+		}
+		for (long priority : expected) {
+			assertEquals(-1, priority);
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			IndexedMinHeap small = new IndexedMinHeap(2);
+			small.insert(0, 5);
+			small.decreaseKey(0, 6);
+		});
+	}
+
+	@Test
+	void testIndexedPriorityQueues() {
+		checkIndexedPriorityQueue(new PairingHeap(500), false);
+		checkIndexedPriorityQueue(new RadixHeap(500), true);
+	}
+
+	@Test
+	void testPairingHeapMeld() {
+		PairingHeap heap = new PairingHeap(10);
+		PairingHeap other = new PairingHeap(10);
+		for (int id = 0; id < 10; id++) {
+			(id % 2 == 0 ? heap : other).insert(id, 100 - id);
+		}
+		other.decreaseKey(5, 1);
+		assertThrows(IllegalArgumentException.class, () -> {
+			PairingHeap overlapping = new PairingHeap(10);
+			overlapping.insert(4, 0);
+			heap.meld(overlapping);
+		});
+		heap.meld(other);
+		assertTrue(other.isEmpty());
+		assertFalse(other.contains(5));
+		assertEquals(10, heap.size());
+		int expected[] = {5, 9, 8, 7, 6, 4, 3, 2, 1, 0};
+		for (int id : expected) {
+			assertEquals(id, heap.pop());
+		}
+		assertThrows(EmptyHeapException.class, () -> heap.pop());
+	}
+
+	@Test
+	void testRadixHeapRejectsPrioritiesBelowLastPopped() {
+		RadixHeap heap = new RadixHeap(4);
+		heap.insert(0, 10);
+		heap.insert(1, 20);
+		assertEquals(0, heap.pop());
+		assertEquals(10, heap.getLast());
+		assertThrows(IllegalArgumentException.class, () -> heap.insert(2, 9));
+		assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 9));
+		heap.decreaseKey(1, 10);
+		heap.insert(2, 10);
+		assertEquals(10, heap.peekPriority());
+	}
+
+	@Test
+	void testLongMultiQueueSingleThreaded() {
+		LongMultiQueue queue = new LongMultiQueue(1);
+		assertFalse(queue.poll().isPresent());
+		long input[] = new Random(11).longs(10_000).toArray();
+		for (long element : input) {
+			queue.push(element);
+		}
+		assertEquals(input.length, queue.size());
+		long popped[] = new long[input.length];
+		for (int i = 0; i < popped.length; i++) {
+			popped[i] = queue.poll().getAsLong();
+		}
+		assertTrue(queue.isEmpty());
+		assertFalse(queue.poll().isPresent());
+		Arrays.sort(input);
+		// With one thread, every pop is the least of two shards, which is the least of the lot
+		assertArrayEquals(input, popped);
+	}
+
+	@Test
+	void testLongMultiQueueConcurrent() throws InterruptedException {
+		int threads = 4;
+		int perThread = 50_000;
+		LongMultiQueue queue = new LongMultiQueue(threads);
+		long popped[][] = new long[threads][perThread];
+		int poppedCounts[] = new int[threads];
+		// Whatever each worker threw, which would otherwise be lost with its thread
+		Throwable failures[] = new Throwable[threads];
+		Thread workers[] = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			workers[t] = new Thread(() -> {
+				try {
+					for (int i = 0; i < perThread; i++) {
+						queue.push((long) thread * perThread + i);
+						// Every thread has pushed more than it has polled, so the queue is never empty here
+						if (i % 2 == 1) {
+							popped[thread][poppedCounts[thread]++] = queue.poll().getAsLong();
+						}
+					}
+				} catch (Throwable e) {
+					failures[thread] = e;
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		for (Throwable failure : failures) {
+			if (failure != null) {
+				fail("A worker thread failed", failure);
+			}
+		}
+		long all[] = new long[threads * perThread];
+		int count = 0;
+		for (int t = 0; t < threads; t++) {
+			System.arraycopy(popped[t], 0, all, count, poppedCounts[t]);
+			count += poppedCounts[t];
+		}
+		for (OptionalLong next = queue.poll(); next.isPresent(); next = queue.poll()) {
+			all[count++] = next.getAsLong();
+		}
+		assertEquals(all.length, count);
+		Arrays.sort(all);
+		for (int i = 0; i < all.length; i++) {
+			assertEquals(i, all[i]);
+		}
+	}
+
+	@Test
+	void testIntHeapViewInPlace() {
+		int elements[] = new Random(5).ints(1000, -100, 100).toArray();
+		int expected[] = elements.clone();
+		Arrays.sort(expected);
+		for (int arity : new int[] {2, 4, 8}) {
+			int tree[] = elements.clone();
+			IntHeapView heap = IntHeapView.min(arity, tree);
+			assertSame(tree, heap.getBuffer().array());
+			assertEquals(expected[0], tree[0]);
+			for (int expectedElement : expected) {
+				assertEquals(expectedElement, heap.pop());
+			}
+			assertThrows(EmptyHeapException.class, () -> heap.pop());
+			// Every pop left its root just past the shrunken heap, so a min view ends up descending
+			for (int i = 0; i < tree.length; i++) {
+				assertEquals(expected[tree.length - 1 - i], tree[i]);
+			}
+		}
+
+		// A max view over the middle of a buffer, growing into the free space after its elements
+		int backing[] = {-1, 3, 9, 4, 0, 0, -1};
+		IntBuffer buffer = IntBuffer.wrap(backing, 1, 5);
+		IntHeapView heap = IntHeapView.max(4, buffer, 3);
+		heap.push(12);
+		heap.push(7);
+		assertThrows(BufferOverflowException.class, () -> heap.push(1));
+		assertEquals(12, heap.replaceTop(2));
+		assertEquals(9, heap.pop());
+		assertEquals(7, heap.peek());
+		assertEquals(-1, backing[0]);
+		assertEquals(-1, backing[6]);
+		assertEquals(1, buffer.position());
+	}
+
+	@Test
+	void testHeapViewSort() {
+		Random random = new Random(9);
+		int ints[] = random.ints(10_000).toArray();
+		int expectedInts[] = ints.clone();
+		Arrays.sort(expectedInts);
+		IntHeapView.sort(ints);
+		assertArrayEquals(expectedInts, ints);
+
+		// Sort a direct buffer, leaving the element before its position alone
+		long longs[] = random.longs(10_000).toArray();
+		LongBuffer buffer = ByteBuffer.allocateDirect((longs.length + 1) * Long.BYTES)
+				.order(ByteOrder.nativeOrder()).asLongBuffer();
+		buffer.put(Long.MIN_VALUE + 1).put(longs).position(1);
+		LongHeapView.sort(buffer);
+		Arrays.sort(longs);
+		assertEquals(Long.MIN_VALUE + 1, buffer.get(0));
+		for (int i = 0; i < longs.length; i++) {
+			assertEquals(longs[i], buffer.get(i + 1));
+		}
+
+		LongHeapView heap = LongHeapView.max(2, new long[] {4, 8, 1});
+		assertEquals(8, heap.pop());
+		assertEquals(4, heap.pop());
+		assertEquals(1, heap.pop());
+	}
+
+	/**
+	 * Run random operations against a queue, checking it against the expected priority of every id.
+	 * A monotone queue is only given priorities at or above the last one popped
+	 */
+	private static void checkIndexedPriorityQueue(IndexedPriorityQueue heap, boolean monotone) {
+		Random random = new Random(47);
+		int capacity = 500;
+		// The expected priority of every id, or null if it isn't in the heap
+		Long expected[] = new Long[capacity];
+		long lastPopped = 0;
+		for (int i = 0; i < 50_000; i++) {
+			int id = random.nextInt(capacity);
+			long priority = (monotone ? lastPopped : 0) + random.nextInt(1000);
+			switch (random.nextInt(4)) {
+			case 0:
+				if (expected[id] == null) {
+					heap.insert(id, priority);
+					expected[id] = priority;
+				}
+				break;
+			case 1:
+				if (expected[id] != null && priority <= expected[id]) {
+					heap.decreaseKey(id, priority);
+					expected[id] = priority;
+				}
+				break;
+			case 2:
+				if (expected[id] != null) {
+					heap.remove(id);
+					expected[id] = null;
+				}
+				break;
+			default:
+				if (!heap.isEmpty()) {
+					long lowest = heap.peekPriority();
+					int popped = heap.pop();
+					assertEquals(expected[popped], lowest);
+					for (Long other : expected) {
+						assertTrue(other == null || other >= lowest);
+					}
+					expected[popped] = null;
+					lastPopped = lowest;
+				}
+			}
+			assertEquals(expected[id] != null, heap.contains(id));
+			if (expected[id] != null) {
+				assertEquals(expected[id], heap.priorityOf(id));
+			}
+		}
+	}
+
 }